@@ -0,0 +1,76 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.Mutation;
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Пакет изменений: applyBatch против поштучных put и delete в порядке поступления.
+// Пакет — случайные ключи, каждый четвёртый — удаление; дерево перестраивается перед каждой итерацией.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class BatchBenchmark {
+    @Param({"1000000"})
+    int size;
+
+    @Param({"1000", "50000", "1000000"})
+    int batchSize;
+
+    private Integer[] keys;
+    private List<Mutation<Integer, Integer>> batch;
+    private RBTree<Integer, Integer> tree;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        Random random = new Random(TreeFixture.SEED + 24);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) keys[i] = random.nextInt(4 * size);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Integer key = random.nextInt(4 * size);
+            batch.add(i % 4 == 3 ? Mutation.delete(key) : Mutation.put(key, key));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void rebuildTree() {
+        tree = RBTree.fromUnsorted(keys, keys);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> applyBatch() {
+        tree.applyBatch(batch);
+        return tree;
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> oneByOne() {
+        for (Mutation<Integer, Integer> mutation : batch) {
+            if (mutation.isDelete()) {
+                tree.delete(mutation.key());
+            } else {
+                tree.put(mutation.key(), mutation.value());
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Заполнение дерева целиком: вставка в цикле против fromSorted и fromUnsorted
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Thread)
+public class BulkLoadBenchmark {
+    @Param({"1000000", "20000000"})
+    int size;
+
+    @Param({"RANDOM", "SEQUENTIAL"})
+    KeyDistribution distribution;
+
+    private Integer[] keys;
+    private Integer[] sortedKeys;
+
+    @Setup
+    public void setUp() {
+        keys = TreeFixture.existingKeys(distribution.buildOrder(size, new Random(TreeFixture.SEED)));
+        sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> insertLoop() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for (Integer key : keys) {
+            tree.insert(key, key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> fromSorted() {
+        return RBTree.fromSorted(sortedKeys, sortedKeys);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> fromUnsorted() {
+        return RBTree.fromUnsorted(keys, keys);
+    }
+}
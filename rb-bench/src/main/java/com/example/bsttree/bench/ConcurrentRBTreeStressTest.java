@@ -0,0 +1,96 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.ConcurrentRBTree;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Нагрузочная проверка ConcurrentRBTree: читатели ищут ключи, пока писатель вставляет и удаляет.
+// Чётные ключи лежат в дереве всё время и должны находиться всегда (у ключей 4k + 2 значение null:
+// containsKey должен находить и их); нечётные появляются и исчезают, но если найдены, то со своим значением. Заодно печатается пропускная способность чтения по числу потоков.
+public class ConcurrentRBTreeStressTest {
+    private static final int KEY_RANGE = 1 << 20; // Диапазон ключей
+    private static final long RUN_MILLIS = 2000; // Длительность одного прогона
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        boolean failed = false;
+        for (int readers = 1; readers <= maxThreads; readers *= 2) {
+            failed |= run(readers);
+        }
+        if (failed) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static boolean run(int readers) throws InterruptedException {
+        ConcurrentRBTree<Integer, Integer> tree = new ConcurrentRBTree<>();
+        for (int key = 0; key < KEY_RANGE; key += 2) {
+            tree.insert(key, key % 4 == 0 ? key : null);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long count = 0;
+            while (!stop.get()) {
+                int key = random.nextInt(KEY_RANGE) | 1;
+                if (random.nextBoolean()) {
+                    tree.insert(key, key);
+                } else {
+                    tree.delete(key);
+                }
+                count++;
+            }
+            writes.addAndGet(count);
+        });
+
+        Thread[] readerThreads = new Thread[readers];
+        for (int i = 0; i < readers; i++) {
+            readerThreads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (!stop.get()) {
+                    int key = random.nextInt(KEY_RANGE);
+                    Integer value = tree.search(key);
+                    boolean ok;
+                    if ((key & 1) == 0) {
+                        ok = Objects.equals(value, key % 4 == 0 ? key : null) && tree.containsKey(key);
+                    } else {
+                        ok = value == null || value == key;
+                    }
+                    if (!ok) {
+                        System.out.println("Key " + key + " returned " + value);
+                        failed.set(true);
+                    }
+                    count++;
+                }
+                reads.addAndGet(count);
+            });
+        }
+
+        writer.start();
+        for (Thread thread : readerThreads) {
+            thread.start();
+        }
+        Thread.sleep(RUN_MILLIS);
+        stop.set(true);
+        writer.join();
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+
+        // Вывод результатов
+        System.out.println("Readers=" + readers + ", Reads/s=" + reads.get() * 1000 / RUN_MILLIS
+                + ", Writes/s=" + writes.get() * 1000 / RUN_MILLIS + (failed.get() ? ", FAILED" : ""));
+        return failed.get();
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.DurableRBTree;
+import com.example.bsttree.SnapshotCodec;
+import com.example.bsttree.SyncPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Проверка восстановления DurableRBTree после падения. Случайные put/delete пишутся с force после
+// каждой операции, длина журнала после каждой из них запоминается. Затем падение имитируется
+// обрезкой копии журнала по случайному смещению (и порчей случайного байта): восстановленное дерево
+// должно совпасть с состоянием после последней операции, целиком попавшей в обрезанный журнал.
+// Половина прогонов делает контрольную точку посередине, и журнал тогда лежит поверх снимка.
+public class DurableRBTreeCrashTest {
+    private static final int OPERATIONS = 3000; // Операций в одном прогоне
+    private static final int KEY_RANGE = 500;   // Диапазон ключей: много перезаписей и удалений
+    private static final int CRASHES = 200;     // Имитаций падения на прогон
+    // Формат каталога DurableRBTree: журнал и длина его заголовка {magic, версия}
+    private static final String LOG_FILE = "wal.log";
+    private static final int LOG_HEADER_SIZE = 8;
+
+    public static void main(String[] args) throws IOException {
+        boolean failed = false;
+        for (int run = 0; run < 4; run++) {
+            failed |= run(new Random(run), run % 2 == 1);
+        }
+        failed |= groupCommit();
+        if (failed) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Одна операция журнала; delete — удаление, иначе put (value может быть null)
+    private static final class Operation {
+        final long key;
+        final String value;
+        final boolean delete;
+
+        Operation(long key, String value, boolean delete) {
+            this.key = key;
+            this.value = value;
+            this.delete = delete;
+        }
+    }
+
+    private static boolean run(Random random, boolean checkpoint) throws IOException {
+        Path directory = Files.createTempDirectory("rbtree-wal");
+        List<Operation> operations = new ArrayList<>();
+        List<Long> logSizes = new ArrayList<>(); // Длина журнала после каждой операции с контрольной точки
+        int checkpointAt = checkpoint ? OPERATIONS / 2 : 0;
+
+        try (DurableRBTree<Long, String> tree = DurableRBTree.open(directory, SnapshotCodec.longs(),
+                SnapshotCodec.strings(), SyncPolicy.everyOperation())) {
+            for (int i = 0; i < OPERATIONS; i++) {
+                if (checkpoint && i == checkpointAt) {
+                    tree.checkpoint();
+                    logSizes.clear();
+                }
+                long key = random.nextInt(KEY_RANGE);
+                Operation operation;
+                if (random.nextInt(3) == 0 && tree.containsKey(key)) {
+                    operation = new Operation(key, null, true);
+                    tree.delete(key);
+                } else {
+                    // Значения разной длины, в том числе null и не-ASCII
+                    String value = random.nextInt(10) == 0 ? null : "значение-" + i + "-" + "x".repeat(random.nextInt(40));
+                    operation = new Operation(key, value, false);
+                    tree.put(key, value);
+                }
+                operations.add(operation);
+                // При everyOperation запись уже в файле и сброшена на диск
+                logSizes.add(Files.size(directory.resolve(LOG_FILE)));
+            }
+        }
+
+        boolean failed = false;
+        for (int crash = 0; crash < CRASHES && !failed; crash++) {
+            long logLength = Files.size(directory.resolve(LOG_FILE));
+            long cut = random.nextInt((int) logLength + 1);
+            boolean corrupt = crash % 4 == 3;
+
+            Path copy = Files.createTempDirectory("rbtree-wal-crash");
+            try {
+                copyDirectory(directory, copy);
+                try (FileChannel log = FileChannel.open(copy.resolve(LOG_FILE), StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    log.truncate(cut);
+                    if (corrupt && cut > LOG_HEADER_SIZE) {
+                        // Порча последнего байта: CRC записи, на которую он пришёлся, не сойдётся
+                        ByteBuffer last = ByteBuffer.allocate(1);
+                        log.read(last, cut - 1);
+                        last.put(0, (byte) ~last.get(0)).rewind();
+                        log.write(last, cut - 1);
+                        cut--;
+                    }
+                }
+
+                // Ожидаемое состояние: операции до контрольной точки и те, чья запись целиком до cut
+                int survived = checkpointAt;
+                for (int i = 0; i < logSizes.size(); i++) {
+                    if (logSizes.get(i) <= cut) survived = checkpointAt + i + 1;
+                }
+                TreeMap<Long, String> expected = new TreeMap<>();
+                for (int i = 0; i < survived; i++) {
+                    Operation operation = operations.get(i);
+                    if (operation.delete) {
+                        expected.remove(operation.key);
+                    } else {
+                        expected.put(operation.key, operation.value);
+                    }
+                }
+
+                try (DurableRBTree<Long, String> recovered = DurableRBTree.open(copy, SnapshotCodec.longs(),
+                        SnapshotCodec.strings(), SyncPolicy.everyOperation())) {
+                    failed = !matches(recovered, expected, "cut=" + cut + ", corrupt=" + corrupt
+                            + ", survived=" + survived);
+                    // После восстановления журнал снова пригоден для записи
+                    recovered.put(-1L, "after-crash");
+                }
+                try (DurableRBTree<Long, String> reopened = DurableRBTree.open(copy, SnapshotCodec.longs(),
+                        SnapshotCodec.strings(), SyncPolicy.everyOperation())) {
+                    expected.put(-1L, "after-crash");
+                    failed |= !matches(reopened, expected, "reopen after cut=" + cut);
+                }
+            } finally {
+                deleteDirectory(copy);
+            }
+        }
+        deleteDirectory(directory);
+        System.out.println("Checkpoint=" + checkpoint + ", operations=" + OPERATIONS + ", crashes=" + CRASHES
+                + (failed ? ", FAILED" : ""));
+        return failed;
+    }
+
+    // Групповая фиксация: несколько потоков пишут с everyOperation, после закрытия всё восстанавливается
+    private static boolean groupCommit() throws IOException {
+        Path directory = Files.createTempDirectory("rbtree-wal-group");
+        int threads = 8;
+        int perThread = 500;
+        long started = System.nanoTime();
+        try (DurableRBTree<Long, String> tree = DurableRBTree.open(directory, SnapshotCodec.longs(),
+                SnapshotCodec.strings(), SyncPolicy.everyOperation())) {
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                writers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        tree.put(base + i, "v" + (base + i));
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+            }
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        boolean failed;
+        try (DurableRBTree<Long, String> recovered = DurableRBTree.open(directory, SnapshotCodec.longs(),
+                SnapshotCodec.strings(), SyncPolicy.everyOperation())) {
+            failed = recovered.size() != threads * perThread;
+            for (long key = 0; key < (long) threads * perThread && !failed; key++) {
+                failed = !("v" + key).equals(recovered.get(key));
+            }
+        }
+        deleteDirectory(directory);
+        System.out.println("Group commit: threads=" + threads + ", writes=" + threads * perThread
+                + ", time=" + millis + " ms" + (failed ? ", FAILED" : ""));
+        return failed;
+    }
+
+    private static boolean matches(DurableRBTree<Long, String> tree, TreeMap<Long, String> expected, String context) {
+        if (tree.size() != expected.size()) {
+            System.out.println(context + ": size " + tree.size() + ", expected " + expected.size());
+            return false;
+        }
+        for (long key = -1; key < KEY_RANGE; key++) {
+            boolean contains = expected.containsKey(key);
+            if (tree.containsKey(key) != contains || !Objects.equals(tree.get(key), expected.get(key))) {
+                System.out.println(context + ": key " + key + " returned " + tree.get(key) + ", expected "
+                        + (contains ? expected.get(key) : "absent"));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void copyDirectory(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
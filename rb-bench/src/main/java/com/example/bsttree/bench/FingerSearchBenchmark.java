@@ -0,0 +1,72 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск от корня и поиск от последнего найденного узла (finger) на обращениях с локальностью:
+// подряд идущие ключи и случайное блуждание с небольшим шагом. Дописывание за максимумом
+// меряет RBTreeMutationBenchmark.insert на SEQUENTIAL.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class FingerSearchBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+    private static final int MAX_STEP = 16; // Наибольший шаг блуждания, в ключах
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean finger;
+
+    private RBTree<Integer, Integer> tree;
+    private Integer[] sequential;
+    private Integer[] clustered;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        tree = TreeFixture.build(KeyDistribution.RANDOM, size);
+        tree.setFingerSearch(finger);
+        sequential = TreeFixture.existingKeys(KeyDistribution.SEQUENTIAL.accessPattern(size, ACCESS_LENGTH, null));
+
+        Random random = new Random(TreeFixture.SEED + 6);
+        int[] walk = new int[ACCESS_LENGTH];
+        int position = random.nextInt(size);
+        for (int i = 0; i < ACCESS_LENGTH; i++) {
+            position = Math.floorMod(position + random.nextInt(2 * MAX_STEP + 1) - MAX_STEP, size);
+            walk[i] = position;
+        }
+        clustered = TreeFixture.existingKeys(walk);
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (ACCESS_LENGTH - 1);
+    }
+
+    @Benchmark
+    public Integer searchSequential() {
+        return tree.search(sequential[next()]);
+    }
+
+    @Benchmark
+    public Integer searchClustered() {
+        return tree.search(clustered[next()]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.FrozenRBTree;
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск в дереве узлов против замороженной копии в раскладке Эйтцингера (RBTree.freeze).
+// LONG — примитивная раскладка long[]; STRING — префиксы ключей из RBTree.forStringKeys.
+// Ключи запросов случайные, поэтому на больших размерах поиск упирается в промахи кэша.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class FreezeBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"LONG", "STRING"})
+    String shape;
+
+    private RBTree<Object, Integer> tree;
+    private FrozenRBTree<Object, Integer> frozen;
+    private Object[] hits;
+    private int cursor;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(TreeFixture.SEED + 10);
+        Object[] keys = new Object[size];
+        boolean strings = shape.equals("STRING");
+        tree = strings ? (RBTree<Object, Integer>) (RBTree<?, Integer>) RBTree.<Integer>forStringKeys() : new RBTree<>();
+        for (int i = 0; i < size; i++) {
+            long key = random.nextLong();
+            keys[i] = strings ? Long.toString(key & Long.MAX_VALUE, 36) + "/" + i : (Object) key;
+            tree.insert(keys[i], i);
+        }
+        frozen = tree.freeze();
+        // Для строк — свежие копии, чтобы сравнение не срабатывало по равенству ссылок
+        hits = new Object[ACCESS_LENGTH];
+        for (int i = 0; i < ACCESS_LENGTH; i++) {
+            Object key = keys[random.nextInt(size)];
+            hits[i] = strings ? new String((String) key) : key;
+        }
+    }
+
+    @Benchmark
+    public Integer treeSearch() {
+        return tree.search(hits[cursor = (cursor + 1) & (ACCESS_LENGTH - 1)]);
+    }
+
+    @Benchmark
+    public Integer frozenSearch() {
+        return frozen.search(hits[cursor = (cursor + 1) & (ACCESS_LENGTH - 1)]);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeInvariants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Регрессия высоты: дерево прогоняется через нагрузку с преобладанием удалений (подряд идущие
+// удаления трёх ключей из четырёх и обратная вставка), после чего проверяются инварианты
+// и граница высоты 2·log2(n + 1). Нарушение валит прогон в Setup, а замер поиска показывает,
+// что время остаётся логарифмическим и после такой нагрузки.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class HeightBoundBenchmark {
+    private static final int ROUNDS = 3;
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"RANDOM", "SEQUENTIAL", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    private RBTree<Integer, Integer> tree;
+    private Integer[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void churn() {
+        tree = TreeFixture.build(distribution, size);
+        Integer[] keys = TreeFixture.existingKeys(KeyDistribution.SEQUENTIAL.buildOrder(size, new Random(TreeFixture.SEED)));
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < keys.length; i++) {
+                if (i % 4 != round % 4) tree.delete(keys[i]);
+            }
+            for (int i = keys.length - 1; i >= 0; i--) {
+                if (i % 4 != round % 4) tree.insert(keys[i], keys[i]);
+            }
+        }
+
+        RBTreeInvariants.check(tree);
+        int height = RBTreeInvariants.height(tree);
+        int bound = RBTreeInvariants.maxHeight(tree.size());
+        if (tree.size() != size || height > bound) {
+            throw new IllegalStateException("Tree of " + tree.size() + " keys has height " + height + " > " + bound);
+        }
+
+        Random random = new Random(TreeFixture.SEED + 5);
+        lookups = TreeFixture.existingKeys(distribution.accessPattern(size, 1 << 16, random));
+        cursor = 0;
+    }
+
+    @Benchmark
+    public Integer searchAfterChurn() {
+        Integer key = lookups[cursor];
+        cursor = (cursor + 1) & (lookups.length - 1);
+        return tree.search(key);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bsttree.bench;
+
+import java.util.Random;
+
+// Распределения ключей для бенчмарков.
+// В дереве размера n лежат чётные ключи 0, 2, ..., 2(n-1); нечётные ключи и ключи >= 2n заведомо отсутствуют.
+public enum KeyDistribution {
+    // Равномерно случайный порядок вставки и обращений
+    RANDOM,
+    // Возрастающие ключи — "вырожденный" случай из RBTreeComplexityTest
+    SEQUENTIAL,
+    // Случайный порядок вставки, обращения сосредоточены на "горячих" ключах (Ципф, theta = 0.99)
+    ZIPFIAN;
+
+    // Порядок, в котором индексы 0..n-1 вставляются при построении дерева
+    int[] buildOrder(int n, Random random) {
+        return this == SEQUENTIAL ? identity(n) : permutation(n, random);
+    }
+
+    // Последовательность индексов существующих ключей для поиска и обновления
+    int[] accessPattern(int n, int length, Random random) {
+        int[] pattern = new int[length];
+        switch (this) {
+            case SEQUENTIAL -> {
+                for (int i = 0; i < length; i++) pattern[i] = i % n;
+            }
+            case RANDOM -> {
+                for (int i = 0; i < length; i++) pattern[i] = random.nextInt(n);
+            }
+            case ZIPFIAN -> {
+                // Перемешиваем ранги, чтобы горячие ключи были разбросаны по дереву, а не сидели у минимума
+                int[] scramble = permutation(n, random);
+                ZipfianGenerator zipf = new ZipfianGenerator(Math.max(n, 2), random);
+                for (int i = 0; i < length; i++) pattern[i] = scramble[(int) (zipf.next() % n)];
+            }
+        }
+        return pattern;
+    }
+
+    // Ключи, которых нет в дереве, в порядке вставки
+    int[] freshKeys(int n, int length, Random random) {
+        int[] keys = new int[length];
+        if (this == SEQUENTIAL) {
+            // Дописывание за текущим максимумом, как у монотонных временных меток
+            for (int i = 0; i < length; i++) keys[i] = 2 * n + i;
+        } else {
+            // Нечётный ключ рядом с существующим; для Ципфа повторы превращаются в обновления
+            int[] around = this == RANDOM ? permutation(Math.max(n, length), random) : accessPattern(n, length, random);
+            for (int i = 0; i < length; i++) keys[i] = 2 * (around[i] % n) + 1;
+        }
+        return keys;
+    }
+
+    static int key(int index) {
+        return 2 * index;
+    }
+
+    private static int[] identity(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) result[i] = i;
+        return result;
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] result = identity(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Цена счётчиков: поиск без метрик (OFF), со счётчиками (COUNTERS) и с гистограммой задержек (LATENCY).
+// Четыре потока читают общее дерево, чтобы была видна и конкуренция за счётчики.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"100000"})
+    int size;
+
+    @Param({"OFF", "COUNTERS", "LATENCY"})
+    String metrics;
+
+    private RBTree<Integer, Integer> tree;
+    private Integer[] hits;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position = new Random().nextInt(ACCESS_LENGTH);
+    }
+
+    @Setup
+    public void setUp() {
+        tree = TreeFixture.build(KeyDistribution.RANDOM, size);
+        if (!metrics.equals("OFF")) {
+            RBTreeMetrics counters = new RBTreeMetrics();
+            counters.setLatencyTracking(metrics.equals("LATENCY"));
+            tree.setMetrics(counters);
+        }
+        Random random = new Random(TreeFixture.SEED + 11);
+        int[] indexes = new int[ACCESS_LENGTH];
+        for (int i = 0; i < ACCESS_LENGTH; i++) indexes[i] = random.nextInt(size);
+        hits = TreeFixture.existingKeys(indexes);
+    }
+
+    @Benchmark
+    public Integer search(Cursor cursor) {
+        return tree.search(hits[cursor.position = (cursor.position + 1) & (ACCESS_LENGTH - 1)]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.LongLongRBTree;
+import com.example.bsttree.LongRBTree;
+import com.example.bsttree.PooledLongRBTree;
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по long-ключам: RBTree<Long, Long> против LongRBTree, LongLongRBTree и деревьев на пуле узлов.
+// Ключи для RBTree упакованы заранее, так что разница — только в раскладке узлов и сравнениях.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PrimitiveKeyBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"RANDOM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    private RBTree<Long, Long> boxedTree;
+    private LongRBTree<Long> longTree;
+    private LongLongRBTree longLongTree;
+    private PooledLongRBTree heapPoolTree;
+    private PooledLongRBTree offHeapPoolTree;
+    private long[] access;
+    private Long[] boxedAccess;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(TreeFixture.SEED);
+        boxedTree = new RBTree<>();
+        longTree = new LongRBTree<>();
+        longLongTree = new LongLongRBTree();
+        heapPoolTree = PooledLongRBTree.onHeap(size + 1);
+        offHeapPoolTree = PooledLongRBTree.offHeap(size + 1);
+        for (int index : distribution.buildOrder(size, random)) {
+            Long key = (long) KeyDistribution.key(index);
+            boxedTree.insert(key, key);
+            longTree.insert(key, key);
+            longLongTree.insert(key, key);
+            heapPoolTree.insert(key, key);
+            offHeapPoolTree.insert(key, key);
+        }
+        int[] pattern = distribution.accessPattern(size, ACCESS_LENGTH, random);
+        access = new long[ACCESS_LENGTH];
+        boxedAccess = new Long[ACCESS_LENGTH];
+        for (int i = 0; i < ACCESS_LENGTH; i++) {
+            access[i] = KeyDistribution.key(pattern[i]);
+            boxedAccess[i] = access[i];
+        }
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (ACCESS_LENGTH - 1);
+    }
+
+    @Benchmark
+    public Long boxedSearch() {
+        return boxedTree.search(boxedAccess[next()]);
+    }
+
+    @Benchmark
+    public Long longSearch() {
+        return longTree.search(access[next()]);
+    }
+
+    @Benchmark
+    public long longLongSearch() {
+        return longLongTree.get(access[next()], -1L);
+    }
+
+    @Benchmark
+    public long heapPoolSearch() {
+        return heapPoolTree.get(access[next()], -1L);
+    }
+
+    @Benchmark
+    public long offHeapPoolSearch() {
+        return offHeapPoolTree.get(access[next()], -1L);
+    }
+}
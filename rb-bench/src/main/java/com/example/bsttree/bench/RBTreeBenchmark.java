@@ -0,0 +1,103 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Операции, не меняющие размер дерева: поиск (попадание и промах), put существующего ключа и полный обход.
+// Размеры до 10^8 задаются с командной строки: -p size=100000000 (нужен соответствующий -Xmx).
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class RBTreeBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"RANDOM", "SEQUENTIAL", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    private RBTree<Integer, Integer> tree;
+    private Integer[] hits;
+    private Integer[] misses;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(TreeFixture.SEED + 1);
+        tree = TreeFixture.build(distribution, size);
+        hits = TreeFixture.existingKeys(distribution.accessPattern(size, ACCESS_LENGTH, random));
+        misses = TreeFixture.box(distribution.freshKeys(size, ACCESS_LENGTH, random));
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (ACCESS_LENGTH - 1);
+    }
+
+    @Benchmark
+    public Integer searchHit() {
+        return tree.search(hits[next()]);
+    }
+
+    @Benchmark
+    public Integer searchMiss() {
+        return tree.search(misses[next()]);
+    }
+
+    @Benchmark
+    public void put() {
+        Integer key = hits[next()];
+        tree.put(key, key);
+    }
+
+    // Обновление счётчика за один спуск
+    @Benchmark
+    public Integer mergeCounter() {
+        return tree.merge(hits[next()], 1, Integer::sum);
+    }
+
+    // То же обновление через get и put: два спуска, для сравнения с mergeCounter
+    @Benchmark
+    public void getThenPutCounter() {
+        Integer key = hits[next()];
+        Integer count = tree.get(key);
+        tree.put(key, count == null ? 1 : count + 1);
+    }
+
+    // Одна операция — полный обход дерева по возрастанию ключей
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterate(Blackhole blackhole) {
+        tree.forEach((key, value) -> blackhole.consume(value));
+    }
+
+    // Полный обход итератором по ссылкам parent
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterateCursor(Blackhole blackhole) {
+        RBTreeIterator<Integer, Integer> iterator = tree.iterator();
+        while (iterator.moveToNextNode()) {
+            blackhole.consume(iterator.getCurrentNodeValue());
+        }
+    }
+}
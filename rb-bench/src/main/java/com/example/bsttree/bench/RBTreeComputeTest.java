@@ -0,0 +1,93 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeInvariants;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Проверка computeIfAbsent и compute, чья функция сама обращается к дереву. Функция вызывается между
+// спуском и вставкой: вложенное чтение не должно сбить найденное место вставки, вложенное изменение —
+// ConcurrentModificationException, а дерево после него остаётся прежним.
+public class RBTreeComputeTest {
+    private static final int SIZE = 50; // Ключи 0, 2, ..., 98
+
+    public static void main(String[] args) {
+        boolean failed = false;
+        // Вложенный промах computeIfAbsent спускается к другому месту вставки
+        failed |= !reentrantRead("computeIfAbsent + computeIfAbsent miss",
+                tree -> tree.computeIfAbsent(51, k -> {
+                    tree.computeIfAbsent(3, x -> null);
+                    return 1;
+                }));
+        failed |= !reentrantRead("compute + compute miss",
+                tree -> tree.compute(51, (k, v) -> {
+                    tree.compute(97, (x, y) -> null);
+                    return 1;
+                }));
+        failed |= !reentrantRead("computeIfAbsent + get",
+                tree -> tree.computeIfAbsent(51, k -> tree.get(3) == null ? 1 : 2));
+        failed |= !reentrantWrite("computeIfAbsent + put",
+                tree -> tree.computeIfAbsent(51, k -> {
+                    tree.put(3, 3);
+                    return 1;
+                }));
+        failed |= !reentrantWrite("compute + remove",
+                tree -> tree.compute(51, (k, v) -> {
+                    tree.remove(4);
+                    return 1;
+                }));
+        if (failed) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static RBTree<Integer, Integer> evenKeys() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for (int i = 0; i < SIZE; i++) tree.put(2 * i, 2 * i);
+        return tree;
+    }
+
+    // Вложенные вызовы ничего не меняют: 51 вставляется на своё место
+    private static boolean reentrantRead(String name, Consumer<RBTree<Integer, Integer>> operation) {
+        RBTree<Integer, Integer> tree = evenKeys();
+        operation.accept(tree);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) expected.add(2 * i);
+        expected.add(26, 51);
+        return check(name, tree, expected) && check(name, tree, tree.containsKey(51), "51 not found");
+    }
+
+    // Вложенное изменение: исключение, и внешняя вставка не выполняется
+    private static boolean reentrantWrite(String name, Consumer<RBTree<Integer, Integer>> operation) {
+        RBTree<Integer, Integer> tree = evenKeys();
+        try {
+            operation.accept(tree);
+            System.out.println(name + ": no ConcurrentModificationException");
+            return false;
+        } catch (ConcurrentModificationException e) {
+            // Ожидаемо
+        }
+        return check(name, tree, !tree.containsKey(51), "51 inserted after a nested change");
+    }
+
+    private static boolean check(String name, RBTree<Integer, Integer> tree, List<Integer> expected) {
+        try {
+            RBTreeInvariants.check(tree);
+        } catch (IllegalStateException e) {
+            System.out.println(name + ": " + e.getMessage());
+            return false;
+        }
+        List<Integer> keys = new ArrayList<>(tree.keySet());
+        return check(name, tree, keys.equals(expected), "keys " + keys);
+    }
+
+    private static boolean check(String name, RBTree<Integer, Integer> tree, boolean condition, String message) {
+        if (!condition) System.out.println(name + ": " + message);
+        return condition;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Вставка и удаление меняют размер дерева, поэтому меряем пачками по BATCH операций
+// на свежем дереве исходного размера: результат — время пачки, на одну операцию — делить на BATCH.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = RBTreeMutationBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = RBTreeMutationBenchmark.BATCH)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class RBTreeMutationBenchmark {
+    static final int BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"RANDOM", "SEQUENTIAL", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    private RBTree<Integer, Integer> tree;
+    private Integer[] freshKeys;
+    private Integer[] deleteKeys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void prepareKeys() {
+        Random random = new Random(TreeFixture.SEED + 2);
+        freshKeys = TreeFixture.box(distribution.freshKeys(size, BATCH, random));
+        // Удаляем существующие ключи в порядке распределения; повторы у Ципфа — промахи удаления
+        deleteKeys = TreeFixture.existingKeys(distribution.accessPattern(size, BATCH, random));
+    }
+
+    @Setup(Level.Iteration)
+    public void rebuildTree() {
+        tree = TreeFixture.build(distribution, size);
+        cursor = 0;
+    }
+
+    @Benchmark
+    public void insert() {
+        Integer key = freshKeys[cursor++];
+        tree.insert(key, key);
+    }
+
+    @Benchmark
+    public void delete() {
+        tree.delete(deleteKeys[cursor++]);
+    }
+}
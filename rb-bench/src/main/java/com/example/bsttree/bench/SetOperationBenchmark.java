@@ -0,0 +1,87 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Слияние деревьев: union/intersection/difference через join против поштучных put и remove.
+// Операции забирают узлы входных деревьев, поэтому каждая итерация — один вызов на свежих деревьях.
+// Второе дерево в ratio раз меньше первого; ключи случайные, часть из них общая.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class SetOperationBenchmark {
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"1", "100"})
+    int ratio;
+
+    private Integer[] aKeys;
+    private Integer[] bKeys;
+    private RBTree<Integer, Integer> a;
+    private RBTree<Integer, Integer> b;
+
+    @Setup(Level.Trial)
+    public void prepareKeys() {
+        Random random = new Random(TreeFixture.SEED + 8);
+        aKeys = randomKeys(size, random);
+        bKeys = randomKeys(size / ratio, random);
+    }
+
+    // Ключи из диапазона 4n: у деревьев равного размера общая примерно четверть ключей
+    private Integer[] randomKeys(int count, Random random) {
+        Integer[] keys = new Integer[count];
+        for (int i = 0; i < count; i++) keys[i] = random.nextInt(4 * size);
+        return keys;
+    }
+
+    @Setup(Level.Iteration)
+    public void rebuildTrees() {
+        a = RBTree.fromUnsorted(aKeys, aKeys);
+        b = RBTree.fromUnsorted(bKeys, bKeys);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> union() {
+        return RBTree.union(a, b);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> unionByPut() {
+        b.forEach(a::put);
+        return a;
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> intersection() {
+        return RBTree.intersection(a, b);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> difference() {
+        return RBTree.difference(a, b);
+    }
+
+    @Benchmark
+    public RBTree<Integer, Integer> differenceByRemove() {
+        b.forEach((key, value) -> a.remove(key));
+        return a;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.ShardedRBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Масштабирование записи ShardedRBTree: каждый поток пишет в свой диапазон ключей.
+// Запуск с разным числом потоков: -t 1, -t 8, -t 32.
+//   SPREAD — границы делят ключи всех запущенных потоков поровну, шарды нагружены равномерно;
+//   SKEWED — все границы ниже ключей, то есть вся запись сначала идёт в последний шард, а ключи
+//            каждого потока пишутся по возрастанию. Перебалансировка должна разнести их по всем шардам:
+//            после прогона размеры шардов проверяются на перекос.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ShardedRBTreeBenchmark {
+    static final int KEYS_PER_THREAD = 1 << 16;
+
+    public enum Start { SPREAD, SKEWED }
+
+    @Param({"1", "8", "64"})
+    int shards;
+
+    @Param({"SPREAD", "SKEWED"})
+    Start start;
+
+    int threads;
+    ShardedRBTree<Integer, Integer> tree;
+    final AtomicInteger threadIds = new AtomicInteger();
+
+    @Setup
+    public void setUp(BenchmarkParams params) {
+        threads = params.getThreads();
+        Integer[] splitPoints = new Integer[shards - 1];
+        long step = (long) threads * KEYS_PER_THREAD / shards;
+        for (int i = 1; i < shards; i++) {
+            splitPoints[i - 1] = start == Start.SPREAD ? (int) (i * step) : i - shards;
+        }
+        tree = new ShardedRBTree<>(splitPoints);
+    }
+
+    // Перекос, который перебалансировка должна была убрать: самый большой шард больше самого
+    // маленького вдвое с запасом
+    @TearDown
+    public void checkBalance() {
+        int[] sizes = tree.shardSizes();
+        int min = Arrays.stream(sizes).min().orElse(0);
+        int max = Arrays.stream(sizes).max().orElse(0);
+        if (max > 2 * min + 1024) {
+            throw new IllegalStateException("Shards stayed skewed: " + Arrays.toString(sizes));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        Integer[] keys;
+        int cursor;
+
+        @Setup
+        public void setUp(ShardedRBTreeBenchmark benchmark) {
+            int thread = benchmark.threadIds.getAndIncrement() % benchmark.threads;
+            KeyDistribution distribution = benchmark.start == Start.SKEWED
+                    ? KeyDistribution.SEQUENTIAL : KeyDistribution.RANDOM;
+            int[] order = distribution.buildOrder(KEYS_PER_THREAD, new Random(thread));
+            keys = new Integer[KEYS_PER_THREAD];
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                keys[i] = thread * KEYS_PER_THREAD + order[i];
+            }
+        }
+
+        Integer next() {
+            return keys[cursor = (cursor + 1) & (KEYS_PER_THREAD - 1)];
+        }
+    }
+
+    @Benchmark
+    public void put(ThreadKeys keys) {
+        Integer key = keys.next();
+        tree.put(key, key);
+    }
+
+    @Benchmark
+    public Integer search(ThreadKeys keys) {
+        return tree.search(keys.next());
+    }
+}
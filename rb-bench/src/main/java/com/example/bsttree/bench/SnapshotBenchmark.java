@@ -0,0 +1,98 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeSnapshot;
+import com.example.bsttree.SnapshotCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Снимок на диске: открытие отображением против загрузки в дерево и поиск в отображении против поиска в дереве.
+// Открытие не зависит от размера, поиск в снимке — двоичный по индексу со сравнением ключей без декодирования.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private Path file;
+    private RBTree<Long, Long> tree;
+    private RBTreeSnapshot<Long, Long> snapshot;
+    private Long[] hits;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(TreeFixture.SEED + 9);
+        tree = new RBTree<>();
+        Long[] keys = new Long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextLong();
+            tree.insert(keys[i], (long) i);
+        }
+        file = Files.createTempFile("rbtree", ".snapshot");
+        RBTreeSnapshot.write(tree, file, SnapshotCodec.longs(), SnapshotCodec.longs());
+        snapshot = RBTreeSnapshot.open(file, SnapshotCodec.longs(), SnapshotCodec.longs());
+        hits = new Long[ACCESS_LENGTH];
+        for (int i = 0; i < ACCESS_LENGTH; i++) {
+            hits[i] = keys[random.nextInt(size)];
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        snapshot.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Long treeGet() {
+        return tree.search(hits[cursor = (cursor + 1) & (ACCESS_LENGTH - 1)]);
+    }
+
+    @Benchmark
+    public Long snapshotGet() {
+        return snapshot.get(hits[cursor = (cursor + 1) & (ACCESS_LENGTH - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 20)
+    public long openMapped() throws IOException {
+        try (RBTreeSnapshot<Long, Long> opened = RBTreeSnapshot.open(file, SnapshotCodec.longs(), SnapshotCodec.longs())) {
+            return opened.size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 20)
+    public RBTree<Long, Long> openAndLoad() throws IOException {
+        try (RBTreeSnapshot<Long, Long> opened = RBTreeSnapshot.open(file, SnapshotCodec.longs(), SnapshotCodec.longs())) {
+            return opened.loadInto(new RBTree<>());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по длинным строковым ключам: естественный порядок String против узлов с префиксом ключа
+// (RBTree.forStringKeys). HOST — ключи различаются в первых символах; URL — у всех общее начало
+// "https://", и префикс из 8 символов сравнение не решает.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class StringKeyBenchmark {
+    private static final int ACCESS_LENGTH = 1 << 20;
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"HOST", "URL"})
+    String shape;
+
+    @Param({"false", "true"})
+    boolean prefixed;
+
+    private RBTree<String, Integer> tree;
+    private String[] hits;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(TreeFixture.SEED + 7);
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            String host = Long.toString(random.nextLong() & Long.MAX_VALUE, 36) + ".example.com/items/" + i;
+            keys[i] = shape.equals("URL") ? "https://" + host : host;
+        }
+        tree = prefixed ? RBTree.forStringKeys() : new RBTree<>();
+        for (int i = 0; i < size; i++) {
+            tree.insert(keys[i], i);
+        }
+        // Свежие копии строк, чтобы сравнение не срабатывало по равенству ссылок
+        hits = new String[ACCESS_LENGTH];
+        for (int i = 0; i < ACCESS_LENGTH; i++) {
+            hits[i] = new String(keys[random.nextInt(size)]);
+        }
+    }
+
+    @Benchmark
+    public Integer searchHit() {
+        return tree.search(hits[cursor = (cursor + 1) & (ACCESS_LENGTH - 1)]);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bsttree.bench;
+
+import com.example.bsttree.RBTree;
+
+import java.util.Random;
+
+// Готовые (заранее упакованные) ключи и построенное дерево, чтобы в замер не попадал Integer.valueOf
+final class TreeFixture {
+    static final long SEED = 42L;
+
+    private TreeFixture() {
+    }
+
+    static Integer[] box(int[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) boxed[i] = keys[i];
+        return boxed;
+    }
+
+    static Integer[] existingKeys(int[] indexes) {
+        Integer[] boxed = new Integer[indexes.length];
+        for (int i = 0; i < indexes.length; i++) boxed[i] = KeyDistribution.key(indexes[i]);
+        return boxed;
+    }
+
+    static RBTree<Integer, Integer> build(KeyDistribution distribution, int size) {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        Integer[] keys = existingKeys(distribution.buildOrder(size, new Random(SEED)));
+        for (Integer key : keys) {
+            tree.insert(key, key);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bsttree.bench;
+
+import java.util.Random;
+
+// Генератор рангов 0..n-1 с распределением Ципфа (алгоритм Gray et al., как в YCSB)
+final class ZipfianGenerator {
+    static final double DEFAULT_THETA = 0.99;
+
+    private final Random random;
+    private final long items;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(long items, Random random) {
+        this(items, DEFAULT_THETA, random);
+    }
+
+    ZipfianGenerator(long items, double theta, Random random) {
+        if (items < 2) {
+            throw new IllegalArgumentException("Zipfian generator needs at least 2 items");
+        }
+        this.random = random;
+        this.items = items;
+        this.theta = theta;
+        this.zetaN = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    // Следующий ранг: 0 — самый "горячий" элемент
+    long next() {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) return 0;
+        if (uz < 1.0 + Math.pow(0.5, theta)) return 1;
+        long rank = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, items - 1);
+    }
+}
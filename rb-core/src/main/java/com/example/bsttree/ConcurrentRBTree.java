@@ -0,0 +1,195 @@
+package com.example.bsttree;
+
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Потокобезопасная обёртка над RBTree для нагрузки "в основном чтение".
+// Поиск идёт без блокировки по штампу StampedLock и проверяется после спуска; блокировка на чтение
+// берётся, только если за это время прошла запись. Записи выполняются по одной под блокировкой на запись.
+public class ConcurrentRBTree<K, V> {
+    // Через сколько шагов спуска перепроверять штамп: при гонке с поворотом путь может зациклиться
+    private static final int VALIDATE_INTERVAL = 64;
+
+    private final RBTree<K, V> tree;
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentRBTree() {
+        this(new RBTree<>());
+    }
+
+    // Дерево передаётся во владение: менять его в обход обёртки нельзя. Поиск от пальца выключается:
+    // в этом режиме поиск пишет в дерево, а читатели идут параллельно под общей блокировкой на чтение
+    public ConcurrentRBTree(RBTree<K, V> tree) {
+        tree.setFingerSearch(false);
+        this.tree = tree;
+    }
+
+    public V search(K key) {
+        return lookup(key, node -> node != null ? node.value : null);
+    }
+
+    public V get(K key) {
+        return search(key);
+    }
+
+    // Ключ со значением null тоже считается найденным
+    public boolean containsKey(K key) {
+        return lookup(key, node -> node != null);
+    }
+
+    // Поиск узла и result от него (null — ключа нет). Сначала без блокировки по штампу: result
+    // вычисляется до validate и отбрасывается, если за это время прошла запись; тогда — под блокировкой на чтение
+    private <R> R lookup(K key, Function<Node<K, V>, R> result) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long start = tree.startTime();
+                Node<K, V> node = findNodeOptimistic(key, stamp);
+                R value = result.apply(node);
+                if (lock.validate(stamp)) {
+                    // Оптимистичный спуск идёт мимо RBTree.search, поэтому и учитывается здесь
+                    tree.record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Спуск увидел дерево посреди записи (например, незаполненный узел) — читаем под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            long start = tree.startTime();
+            Node<K, V> node = tree.findNode(key);
+            tree.record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+            return result.apply(node);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Спуск без блокировки; результат имеет смысл только если потом validate(stamp) вернёт true
+    private Node<K, V> findNodeOptimistic(K key, long stamp) {
+        Node<K, V> current = tree.rootNode();
+        int steps = 0;
+        while (current != null) {
+            int cmp = tree.compare(key, current.key);
+            if (cmp == 0) {
+                tree.recordDescent(steps + 1);
+                return current;
+            }
+            current = cmp < 0 ? current.left : current.right;
+            if (++steps % VALIDATE_INTERVAL == 0 && !lock.validate(stamp)) {
+                return null;
+            }
+        }
+        tree.recordDescent(steps);
+        return null;
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tree.size();
+        if (lock.validate(stamp)) {
+            return size;
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void insert(K key, V value) {
+        long stamp = lock.writeLock();
+        try {
+            tree.insert(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void put(K key, V value) {
+        long stamp = lock.writeLock();
+        try {
+            tree.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Обновление за один спуск под одной блокировкой: счётчики без гонки между чтением и записью
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.merge(key, value, remappingFunction);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.compute(key, remappingFunction);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void delete(K key) {
+        long stamp = lock.writeLock();
+        try {
+            tree.delete(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Пакет изменений (см. RBTree.applyBatch) под одной блокировкой на запись: читатели видят дерево
+    // либо до пакета, либо после него целиком. Сортировка пакета идёт до захвата блокировки
+    public void applyBatch(Collection<? extends Mutation<K, V>> batch) {
+        Mutation<K, V>[] sorted = tree.sortBatch(batch);
+        long stamp = lock.writeLock();
+        try {
+            tree.applySortedBatch(sorted, 0, sorted.length);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            tree.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Обходы держат блокировку на чтение всё время обхода
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        long stamp = lock.readLock();
+        try {
+            tree.forEach(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Обход ключей из [lo, hi] по возрастанию (null — без ограничения)
+    public void forEachInRange(K lo, K hi, BiConsumer<? super K, ? super V> action) {
+        long stamp = lock.readLock();
+        try {
+            tree.forEachInRange(lo, true, hi, true, action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
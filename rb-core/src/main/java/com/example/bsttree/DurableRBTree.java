@@ -0,0 +1,526 @@
+package com.example.bsttree;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// RBTree, переживающее падение процесса: каждое изменение дописывается в журнал (write-ahead log),
+// состояние периодически сохраняется снимком RBTreeSnapshot, после чего журнал обрезается.
+// При открытии загружается снимок и поверх него проигрывается журнал.
+//
+// Каталог содержит два файла:
+//   snapshot.rbts — последний снимок (заменяется атомарным переименованием)
+//   wal.log — заголовок {magic "RBWL", версия} и записи {int длина, int CRC32C, тело};
+//             тело — {byte тип, int длина ключа, ключ[, int длина значения (-1 — null), значение]}
+// Запись, оборванная падением или не прошедшая проверку CRC, и всё после неё отбрасываются.
+//
+// Журнал хранит только перезаписи (put) и удаления (delete): их повторное применение к состоянию,
+// которое их уже содержит, ничего не меняет. Поэтому падение между заменой снимка и обрезкой
+// журнала безопасно — старый журнал просто проигрывается поверх нового снимка.
+//
+// Потокобезопасно: чтения идут параллельно, изменения — по одному под блокировкой на запись.
+// Запись в файл и force выполняются вне этой блокировки, одним потоком за раз; всё, что накопилось
+// в буфере к этому моменту, уходит одним force (групповая фиксация).
+public class DurableRBTree<K, V> implements AutoCloseable {
+    private static final String SNAPSHOT_FILE = "snapshot.rbts";
+    private static final String LOG_FILE = "wal.log";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.rbts.tmp";
+
+    private static final int LOG_MAGIC = 0x5242574C; // "RBWL"
+    private static final int LOG_VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private static final int FLUSH_BYTES = 1 << 20; // Буфер больше этого пишется в файл, не дожидаясь force
+    private static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+    private final Path directory;
+    private final RBTree<K, V> tree;
+    private final SnapshotCodec<K> keyCodec;
+    private final SnapshotCodec<V> valueCodec;
+    private final SyncPolicy policy;
+    private final FileChannel log;
+
+    // Порядок захвата: flushLock, затем lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16); // Записи, ещё не отданные в файл (под lock)
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);   // Второй буфер для обмена (под flushLock)
+    private long appendedLsn;            // Номер последнего изменения (под lock)
+    private volatile long durableLsn;    // Номер последнего изменения, сброшенного на диск
+    private long logSize;                // Длина журнала в файле (под flushLock)
+    private volatile long checkpointBytes = DEFAULT_CHECKPOINT_BYTES;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private final ScheduledExecutorService syncer;
+
+    private DurableRBTree(Path directory, RBTree<K, V> tree, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec,
+                          SyncPolicy policy, FileChannel log, long logSize) {
+        this.directory = directory;
+        this.tree = tree;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.policy = policy;
+        this.log = log;
+        this.logSize = logSize;
+        if (policy.mode == SyncPolicy.Mode.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rbtree-wal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncInBackground, policy.intervalMillis, policy.intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    public static <K extends Comparable<K>, V> DurableRBTree<K, V> open(Path directory, SnapshotCodec<K> keyCodec,
+                                                                        SnapshotCodec<V> valueCodec,
+                                                                        SyncPolicy policy) throws IOException {
+        return open(directory, new RBTree<>(), keyCodec, valueCodec, policy);
+    }
+
+    // Восстановление из каталога (или создание пустого). Пустое дерево tree задаёт порядок ключей
+    // и передаётся во владение: менять его в обход обёртки нельзя
+    public static <K, V> DurableRBTree<K, V> open(Path directory, RBTree<K, V> tree, SnapshotCodec<K> keyCodec,
+                                                  SnapshotCodec<V> valueCodec, SyncPolicy policy) throws IOException {
+        if (!tree.isEmpty()) {
+            throw new IllegalArgumentException("Tree must be empty, has " + tree.size() + " entries");
+        }
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP_FILE));
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            try (RBTreeSnapshot<K, V> snapshot = RBTreeSnapshot.open(snapshotFile, keyCodec, valueCodec)) {
+                snapshot.loadInto(tree);
+            }
+        }
+        FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long logSize = replay(log, tree, keyCodec, valueCodec);
+            return new DurableRBTree<>(directory, tree, keyCodec, valueCodec, policy, log, logSize);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    // Проигрывание журнала в tree; возвращает длину целой части журнала, хвост за ней обрезается
+    private static <K, V> long replay(FileChannel log, RBTree<K, V> tree, SnapshotCodec<K> keyCodec,
+                                      SnapshotCodec<V> valueCodec) throws IOException {
+        long size = log.size();
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        if (size < LOG_HEADER_SIZE || !readFully(log, header, 0)) {
+            // Новый журнал или падение во время его создания
+            header.clear();
+            header.putInt(LOG_MAGIC).putInt(LOG_VERSION).flip();
+            log.truncate(0);
+            writeFully(log, header, 0);
+            log.force(true);
+            return LOG_HEADER_SIZE;
+        }
+        header.flip();
+        if (header.getInt() != LOG_MAGIC) {
+            throw new IOException("Not an RBTree write-ahead log");
+        }
+        int version = header.getInt();
+        if (version != LOG_VERSION) {
+            throw new IOException("Unsupported write-ahead log version " + version);
+        }
+
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        ByteBuffer body = ByteBuffer.allocate(1 << 16);
+        CRC32C crc = new CRC32C();
+        long position = LOG_HEADER_SIZE;
+        while (true) {
+            recordHeader.clear();
+            if (!readFully(log, recordHeader, position)) break;
+            int length = recordHeader.getInt(0);
+            if (length < 5 || position + RECORD_HEADER_SIZE + length > size) break;
+            if (body.capacity() < length) body = ByteBuffer.allocate(length);
+            body.clear().limit(length);
+            if (!readFully(log, body, position + RECORD_HEADER_SIZE)) break;
+            body.flip();
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != recordHeader.getInt(4) || !apply(body, tree, keyCodec, valueCodec)) break;
+            position += RECORD_HEADER_SIZE + length;
+        }
+        if (position < size) {
+            log.truncate(position);
+            log.force(true);
+        }
+        return position;
+    }
+
+    // Применение одной записи; false — запись не разбирается (журнал повреждён)
+    private static <K, V> boolean apply(ByteBuffer body, RBTree<K, V> tree, SnapshotCodec<K> keyCodec,
+                                        SnapshotCodec<V> valueCodec) {
+        int length = body.limit();
+        byte type = body.get(0);
+        int keySize = body.getInt(1);
+        int keyEnd = 5 + keySize;
+        if (keySize < 0 || keyEnd > length) return false;
+        if (type == DELETE) {
+            if (keyEnd != length) return false;
+            tree.remove(keyCodec.decode(body, 5, keySize));
+            return true;
+        }
+        if (type != PUT || keyEnd + 4 > length) return false;
+        int valueSize = body.getInt(keyEnd);
+        if (valueSize >= 0 ? keyEnd + 4 + valueSize != length : keyEnd + 4 != length) return false;
+        K key = keyCodec.decode(body, 5, keySize);
+        tree.put(key, valueSize >= 0 ? valueCodec.decode(body, keyEnd + 4, valueSize) : null);
+        return true;
+    }
+
+    public V search(K key) {
+        lock.readLock().lock();
+        try {
+            return tree.search(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public V get(K key) {
+        return search(key);
+    }
+
+    public boolean containsKey(K key) {
+        lock.readLock().lock();
+        try {
+            return tree.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Обход по возрастанию ключей; изменения на время обхода блокируются
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        lock.readLock().lock();
+        try {
+            tree.forEach(action);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void insert(K key, V value) {
+        put(key, value);
+    }
+
+    // Возвращает прежнее значение. Ошибка записи журнала — UncheckedIOException; после неё
+    // все следующие изменения отклоняются, т.к. неизвестно, что из журнала попало на диск
+    public V put(K key, V value) {
+        V previous;
+        long lsn;
+        boolean full;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            int mark = append(PUT, key, value);
+            try {
+                previous = tree.put(key, value);
+            } catch (RuntimeException e) {
+                rollback(mark);
+                throw e;
+            }
+            lsn = appendedLsn;
+            full = pending.position() >= FLUSH_BYTES;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        afterWrite(lsn, full);
+        return previous;
+    }
+
+    public void delete(K key) {
+        remove(key);
+    }
+
+    // Удаление отсутствующего ключа в журнал не пишется
+    public V remove(K key) {
+        V previous;
+        long lsn;
+        boolean full;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            if (!tree.containsKey(key)) return null;
+            append(DELETE, key, null);
+            previous = tree.remove(key);
+            lsn = appendedLsn;
+            full = pending.position() >= FLUSH_BYTES;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        afterWrite(lsn, full);
+        return previous;
+    }
+
+    // Кодирование записи в буфер; возвращает позицию начала записи для отката
+    private int append(byte type, K key, V value) {
+        int keySize = keyCodec.encodedSize(key);
+        int valueSize = type == PUT && value != null ? valueCodec.encodedSize(value) : 0;
+        long length = 5L + keySize + (type == PUT ? 4 + valueSize : 0);
+        if (length > Integer.MAX_VALUE - RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Log record of " + length + " bytes is too large");
+        }
+        ensureCapacity(RECORD_HEADER_SIZE + (int) length);
+
+        int start = pending.position();
+        pending.putInt((int) length).putInt(0);
+        pending.put(type).putInt(keySize);
+        keyCodec.encode(key, pending);
+        if (type == PUT) {
+            pending.putInt(value != null ? valueSize : -1);
+            if (value != null) valueCodec.encode(value, pending);
+        }
+        if (pending.position() - start - RECORD_HEADER_SIZE != length) {
+            pending.position(start);
+            throw new IllegalStateException("Codec wrote a different number of bytes than declared");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(pending.slice(start + RECORD_HEADER_SIZE, (int) length));
+        pending.putInt(start + 4, (int) crc.getValue());
+        appendedLsn++;
+        return start;
+    }
+
+    private void rollback(int mark) {
+        pending.position(mark);
+        appendedLsn--;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() >= bytes) return;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + bytes));
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+
+    // Ожидание долговечности по политике: при everyOperation — до force своей записи,
+    // при batch — когда с последнего force накопилось batchSize изменений
+    private void afterWrite(long lsn, boolean full) {
+        try {
+            if (lsn - durableLsn >= policy.batchSize) {
+                syncTo(lsn);
+            } else if (full) {
+                flush(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Сброс на диск всех изменений, сделанных до вызова
+    public void sync() throws IOException {
+        long lsn;
+        lock.readLock().lock();
+        try {
+            lsn = appendedLsn;
+        } finally {
+            lock.readLock().unlock();
+        }
+        syncTo(lsn);
+    }
+
+    // Групповая фиксация: потоки ждут flushLock, а пока один выполняет force, остальные успевают
+    // дописать свои записи в буфер. Следующий получивший блокировку либо уже покрыт чужим force,
+    // либо сбрасывает всё накопленное сразу.
+    private void syncTo(long lsn) throws IOException {
+        if (durableLsn >= lsn) return;
+        flushLock.lock();
+        try {
+            if (durableLsn < lsn) flush(true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Запись буфера в конец журнала и, если force, сброс на диск; при разросшемся журнале — контрольная точка
+    private void flush(boolean force) throws IOException {
+        flushLock.lock();
+        try {
+            ensureWritable();
+            ByteBuffer batch;
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                batch = pending;
+                pending = spare;
+                lsn = appendedLsn;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                batch.flip();
+                logSize = writeFully(log, batch, logSize);
+                batch.clear();
+                spare = batch;
+                if (force && durableLsn < lsn) {
+                    log.force(true);
+                    durableLsn = lsn;
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            if (logSize >= checkpointBytes) {
+                checkpoint();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Контрольная точка: снимок текущего состояния во временный файл, атомарная замена снимка,
+    // обрезка журнала. Изменения на это время блокируются, чтения продолжаются.
+    public void checkpoint() throws IOException {
+        flushLock.lock();
+        try {
+            ensureWritable();
+            lock.readLock().lock();
+            try {
+                Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+                RBTreeSnapshot.write(tree, temp, keyCodec, valueCodec);
+                Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory();
+                try {
+                    log.truncate(LOG_HEADER_SIZE);
+                    log.force(true);
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+                logSize = LOG_HEADER_SIZE;
+                // Все изменения буфера уже в снимке; под блокировкой на чтение буфер никто не трогает
+                pending.clear();
+                durableLsn = appendedLsn;
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Контрольная точка делается автоматически, когда журнал дорастает до bytes байт
+    public void setCheckpointThreshold(long bytes) {
+        if (bytes < LOG_HEADER_SIZE) {
+            throw new IllegalArgumentException("Checkpoint threshold too small: " + bytes);
+        }
+        checkpointBytes = bytes;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return policy;
+    }
+
+    private void syncInBackground() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // Сохранено в failure; следующее изменение получит ошибку
+        } catch (IllegalStateException e) {
+            // Журнал уже закрыт
+        }
+    }
+
+    // Переименование становится долговечным только после force каталога; не везде каталог можно открыть
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Файловая система не поддерживает force каталога
+        }
+    }
+
+    private void ensureWritable() {
+        if (closed) {
+            throw new IllegalStateException("Tree is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed earlier", failure);
+        }
+    }
+
+    // Сброс всех изменений на диск и закрытие журнала; читать дерево после закрытия можно.
+    // Если журнал отказал раньше, журнал закрывается и close бросает ту ошибку
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        if (syncer != null) {
+            // Без прерывания: прерванный force закрывает канал (ClosedByInterruptException),
+            // и записи, уже взятые фоновым sync из буфера, пропали бы. Дожидаемся его окончания
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for background sync");
+            }
+        }
+        try {
+            if (failure != null) {
+                throw new IOException("Write-ahead log failed earlier", failure);
+            }
+            sync();
+        } finally {
+            closed = true;
+            log.close();
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) return false;
+            position += read;
+        }
+        return true;
+    }
+
+    // Возвращает позицию после записанных байт
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.bsttree;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+// Словарь с временем жизни записей и ограничением размера, на трёх RBTree:
+//   по ключу — поиск значения;
+//   по сроку (deadline, затем номер записи) — истёкшие записи всегда в начале, и истечение K записей
+//   стоит O(K log n): снимается первая запись, пока её срок прошёл, живые записи не просматриваются;
+//   по времени последнего обращения — только для вытеснения LRU.
+// Истёкшие записи снимаются пачками: каждая операция снимает не больше ACCESS_EXPIRE_LIMIT записей
+// (истёкшая запись, к которой обращаются, не возвращается в любом случае), expire() — все сразу,
+// а startSweeper — по расписанию в фоновом потоке. Потокобезопасен: операции идут под одной блокировкой,
+// слушатели вытеснения вызываются после её снятия, в потоке, который вытеснил запись.
+public class ExpiringRBMap<K, V> implements AutoCloseable {
+    private static final int ACCESS_EXPIRE_LIMIT = 16;
+
+    // Какую запись вытеснять при превышении размера
+    public enum EvictionPolicy {
+        LRU,              // Дольше всех не читанную и не записанную
+        EARLIEST_DEADLINE // С ближайшим сроком
+    }
+
+    // Почему запись ушла из словаря
+    public enum RemovalCause {
+        EXPIRED, // Истёк срок
+        SIZE     // Вытеснена при превышении размера
+    }
+
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onEviction(K key, V value, RemovalCause cause);
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        V value;
+        long deadline; // Срок по System.nanoTime; Long.MAX_VALUE — бессрочно
+        long access;   // Номер последнего обращения для LRU
+        final long id; // Различает записи с одинаковым сроком
+        RemovalCause cause;
+
+        Entry(K key, V value, long id) {
+            this.key = key;
+            this.value = value;
+            this.id = id;
+        }
+    }
+
+    // Поля порядка (deadline, access) меняются только у записи, вынутой из соответствующего индекса
+    private static final Comparator<Entry<?, ?>> BY_DEADLINE = (a, b) -> {
+        int cmp = Long.compare(a.deadline, b.deadline);
+        return cmp != 0 ? cmp : Long.compare(a.id, b.id);
+    };
+    private static final Comparator<Entry<?, ?>> BY_ACCESS = (a, b) -> {
+        int cmp = Long.compare(a.access, b.access);
+        return cmp != 0 ? cmp : Long.compare(a.id, b.id);
+    };
+
+    private final RBTree<K, Entry<K, V>> byKey;
+    private final RBTree<Entry<K, V>, Entry<K, V>> byDeadline = new RBTree<>(BY_DEADLINE);
+    private final RBTree<Entry<K, V>, Entry<K, V>> byAccess; // null, если вытеснение не LRU
+    private final long defaultTtl; // Наносекунды
+    private final int maxSize;
+    private final EvictionPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<EvictionListener<? super K, ? super V>> listeners = new CopyOnWriteArrayList<>();
+    private long nextId;
+    private long nextAccess;
+    private ScheduledExecutorService sweeper;
+
+    // Ключи в естественном порядке; maxSize — наибольшее число записей (Integer.MAX_VALUE — без ограничения)
+    public ExpiringRBMap(Duration defaultTtl, int maxSize, EvictionPolicy policy) {
+        this(null, defaultTtl, maxSize, policy);
+    }
+
+    public ExpiringRBMap(Comparator<? super K> comparator, Duration defaultTtl, int maxSize, EvictionPolicy policy) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maxSize);
+        }
+        this.defaultTtl = ttlNanos(defaultTtl);
+        this.maxSize = maxSize;
+        this.policy = policy;
+        byKey = new RBTree<>(comparator);
+        byAccess = policy == EvictionPolicy.LRU ? new RBTree<>(BY_ACCESS) : null;
+    }
+
+    private static long ttlNanos(Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        try {
+            return ttl.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE; // Больше 292 лет — бессрочно
+        }
+    }
+
+    // Срок с насыщением: now + ttl без переполнения
+    private static long deadline(long now, long ttl) {
+        long deadline = now + ttl;
+        return ((now ^ deadline) & (ttl ^ deadline)) < 0 ? Long.MAX_VALUE : deadline;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return policy;
+    }
+
+    public void addEvictionListener(EvictionListener<? super K, ? super V> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeEvictionListener(EvictionListener<? super K, ? super V> listener) {
+        listeners.remove(listener);
+    }
+
+    // Запись со сроком по умолчанию; возвращает прежнее живое значение или null
+    public V put(K key, V value) {
+        return put(key, value, defaultTtl);
+    }
+
+    public V put(K key, V value, Duration ttl) {
+        return put(key, value, ttlNanos(ttl));
+    }
+
+    private V put(K key, V value, long ttl) {
+        List<Entry<K, V>> evicted = new ArrayList<>();
+        V old = null;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            expire(now, ACCESS_EXPIRE_LIMIT, evicted);
+            Entry<K, V> entry = live(key, now, evicted);
+            if (entry != null) {
+                old = entry.value;
+                entry.value = value;
+                byDeadline.remove(entry);
+            } else {
+                entry = new Entry<>(key, value, nextId++);
+                byKey.put(key, entry);
+                if (byKey.size() > maxSize) evictForSize(evicted);
+            }
+            entry.deadline = deadline(now, ttl);
+            byDeadline.put(entry, entry);
+            touch(entry);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return old;
+    }
+
+    // Значение живой записи или null. При LRU чтение обновляет время обращения, срок не продлевает
+    public V get(K key) {
+        List<Entry<K, V>> evicted = new ArrayList<>();
+        V value = null;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            expire(now, ACCESS_EXPIRE_LIMIT, evicted);
+            Entry<K, V> entry = live(key, now, evicted);
+            if (entry != null) {
+                value = entry.value;
+                touch(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return value;
+    }
+
+    public boolean containsKey(K key) {
+        List<Entry<K, V>> evicted = new ArrayList<>();
+        boolean found;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            expire(now, ACCESS_EXPIRE_LIMIT, evicted);
+            found = live(key, now, evicted) != null;
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return found;
+    }
+
+    // Новый срок живой записи, отсчитанный от текущего момента (продление сессии); false — записи нет
+    public boolean setTtl(K key, Duration ttl) {
+        long nanos = ttlNanos(ttl);
+        List<Entry<K, V>> evicted = new ArrayList<>();
+        boolean found;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            expire(now, ACCESS_EXPIRE_LIMIT, evicted);
+            Entry<K, V> entry = live(key, now, evicted);
+            found = entry != null;
+            if (found) {
+                byDeadline.remove(entry);
+                entry.deadline = deadline(now, nanos);
+                byDeadline.put(entry, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return found;
+    }
+
+    // Оставшееся время жизни записи или null, если живой записи нет
+    public Duration remainingTtl(K key) {
+        lock.lock();
+        try {
+            Entry<K, V> entry = byKey.get(key);
+            long now = System.nanoTime();
+            if (entry == null || entry.deadline <= now) return null;
+            return entry.deadline == Long.MAX_VALUE ? Duration.ofNanos(Long.MAX_VALUE) : Duration.ofNanos(entry.deadline - now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Удаление по ключу; слушатели не вызываются. Возвращает живое значение или null
+    public V remove(K key) {
+        lock.lock();
+        try {
+            Entry<K, V> entry = byKey.remove(key);
+            if (entry == null) return null;
+            unlink(entry);
+            return entry.deadline > System.nanoTime() ? entry.value : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Число живых записей; истёкшие снимаются перед подсчётом
+    public int size() {
+        expire();
+        lock.lock();
+        try {
+            return byKey.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            byKey.clear();
+            byDeadline.clear();
+            if (byAccess != null) byAccess.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Обход живых записей по возрастанию ключей под блокировкой
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            byKey.forEach((key, entry) -> {
+                if (entry.deadline > now) action.accept(key, entry.value);
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Снимает все истёкшие записи; возвращает их число
+    public int expire() {
+        List<Entry<K, V>> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            expire(System.nanoTime(), Integer.MAX_VALUE, evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return evicted.size();
+    }
+
+    // Фоновое снятие истёкших записей раз в period. Повторный вызов меняет период
+    public synchronized void startSweeper(Duration period) {
+        long millis = Math.max(1, period.toMillis());
+        stopSweeper();
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rbtree-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::expire, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    // Проход, который уже идёт, доводится до конца вместе с вызовами слушателей: поток не прерывается
+    public synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+            sweeper = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stopSweeper();
+    }
+
+    // Истёкшие записи с начала индекса сроков, не больше limit
+    private void expire(long now, int limit, List<Entry<K, V>> evicted) {
+        for (int i = 0; i < limit; i++) {
+            Map.Entry<Entry<K, V>, Entry<K, V>> first = byDeadline.firstEntry();
+            if (first == null || first.getKey().deadline > now) return;
+            Entry<K, V> entry = first.getKey();
+            byDeadline.remove(entry);
+            byKey.remove(entry.key);
+            if (byAccess != null) byAccess.remove(entry);
+            entry.cause = RemovalCause.EXPIRED;
+            evicted.add(entry);
+        }
+    }
+
+    // Запись ключа, если она жива; истёкшая снимается сразу, не дожидаясь своей очереди
+    private Entry<K, V> live(K key, long now, List<Entry<K, V>> evicted) {
+        Entry<K, V> entry = byKey.get(key);
+        if (entry == null || entry.deadline > now) return entry;
+        byKey.remove(key);
+        unlink(entry);
+        entry.cause = RemovalCause.EXPIRED;
+        evicted.add(entry);
+        return null;
+    }
+
+    // Вытеснение одной записи по политике. Добавляемая запись ещё не попала в индексы сроков
+    // и обращений, поэтому сама себя не вытесняет
+    private void evictForSize(List<Entry<K, V>> evicted) {
+        RBTree<Entry<K, V>, Entry<K, V>> index = byAccess != null ? byAccess : byDeadline;
+        Map.Entry<Entry<K, V>, Entry<K, V>> first = index.firstEntry();
+        if (first == null) return;
+        Entry<K, V> victim = first.getKey();
+        byKey.remove(victim.key);
+        unlink(victim);
+        victim.cause = RemovalCause.SIZE;
+        evicted.add(victim);
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        byDeadline.remove(entry);
+        if (byAccess != null) byAccess.remove(entry);
+    }
+
+    private void touch(Entry<K, V> entry) {
+        if (byAccess == null) return;
+        byAccess.remove(entry);
+        entry.access = nextAccess++;
+        byAccess.put(entry, entry);
+    }
+
+    // Слушатели вызываются вне блокировки; исключение слушателя уходит обработчику необработанных
+    // исключений потока и не мешает остальным слушателям
+    private void notifyListeners(List<Entry<K, V>> evicted) {
+        if (evicted.isEmpty() || listeners.isEmpty()) return;
+        for (Entry<K, V> entry : evicted) {
+            for (EvictionListener<? super K, ? super V> listener : listeners) {
+                try {
+                    listener.onEviction(entry.key, entry.value, entry.cause);
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.bsttree;
+
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+// Неизменяемый индекс для фаз "только чтение", результат RBTree.freeze().
+// Ключи и значения лежат в массивах по возрастанию ключей; для поиска ключи дополнительно разложены
+// в порядке Эйтцингера (дерево в массиве: потомки элемента i — 2i и 2i + 1). Верхние уровни такого
+// дерева занимают несколько соседних строк кэша и остаются в кэше, а спуск не ветвится по результату
+// сравнения — индекс считается арифметически, и JIT может обойтись условной пересылкой.
+// Раскладка поиска по виду ключей:
+//   Long и Integer в естественном порядке — примитивный long[], без обращений к объектам ключей;
+//   String и byte[] из RBTree.forStringKeys/forByteArrayKeys — long[] префиксов ключей, ключ читается
+//   только при равных префиксах;
+//   остальные — массив ссылок на ключи и сравнение компаратором.
+// Как и RBTree, это NavigableMap: его можно передать вместо дерева туда, где оно только читается.
+// Диапазоны (subMap/headMap/tailMap/descendingMap) — представления FrozenRBTreeSubMap без копирования;
+// изменения — UnsupportedOperationException.
+public final class FrozenRBTree<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    // Корень раскладки — элемент 1, поэтому 2 * size + 1 не должно переполнить int
+    private static final int MAX_SIZE = (Integer.MAX_VALUE - 1) / 2;
+
+    private final Comparator<? super K> comparator; // null — естественный порядок ключей
+    private final KeyPrefix<? super K> keyPrefix;   // Для поиска по префиксам; иначе null
+    private final boolean intKeys;                  // Ключи Integer в primitive-раскладке
+    private final int size;
+    private final Object[] keys;   // По возрастанию
+    private final Object[] values; // По возрастанию ключей
+    private final Object[] layout; // Ключи в порядке Эйтцингера, с 1; null для primitive-раскладки
+    private final long[] primitiveLayout; // Ключи или префиксы ключей в порядке Эйтцингера; null — не используется
+    private final int[] rank;      // Номер элемента раскладки по возрастанию; rank[0] = size
+    // Представление всего индекса, через которое реализованы представления NavigableMap
+    private final FrozenRBTreeSubMap<K, V> fullRange;
+
+    FrozenRBTree(RBTree<K, V> tree, Comparator<? super K> comparator, KeyPrefix<? super K> keyPrefix) {
+        int size = tree.size();
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("Too many entries to freeze: " + size);
+        }
+        this.comparator = comparator;
+        this.size = size;
+        keys = new Object[size];
+        values = new Object[size];
+        int[] position = new int[1];
+        tree.forEach((key, value) -> {
+            keys[position[0]] = key;
+            values[position[0]++] = value;
+        });
+
+        // Примитивные ключи — только в естественном порядке: компаратор мог бы упорядочить их иначе
+        Object first = size > 0 ? keys[0] : null;
+        boolean primitive = comparator == null && (first instanceof Long || first instanceof Integer);
+        this.intKeys = primitive && first instanceof Integer;
+        this.keyPrefix = primitive ? null : keyPrefix;
+
+        rank = new int[size + 1];
+        rank[0] = size;
+        layout = primitive ? null : new Object[size + 1];
+        primitiveLayout = primitive || keyPrefix != null ? new long[size + 1] : null;
+        fill(1, 0);
+        fullRange = new FrozenRBTreeSubMap<>(this, null, false, null, false, false);
+    }
+
+    // Обход раскладки в симметричном порядке раздаёт элементам ключи по возрастанию; next — следующий ключ
+    private int fill(int index, int next) {
+        if (index > size) return next;
+        next = fill(2 * index, next);
+        Object key = keys[next];
+        rank[index] = next;
+        if (layout != null) layout[index] = key;
+        if (primitiveLayout != null) {
+            primitiveLayout[index] = layout == null ? ((Number) key).longValue() : keyPrefix.prefix(key(next));
+        }
+        return fill(2 * index + 1, next + 1);
+    }
+
+    // Элемент раскладки с первым ключом, не меньшим key (0 — такого нет). Спуск всегда идёт до листа:
+    // i = 2i + (a[i] < key), после чего последний поворот направо отбрасывается сдвигом
+    // на число замыкающих единиц плюс один.
+    private int lowerBoundIndex(K key) {
+        int i = 1;
+        if (layout == null) {
+            long target = primitiveKey(key);
+            long[] a = primitiveLayout;
+            while (i <= size) {
+                i = 2 * i + (a[i] < target ? 1 : 0);
+            }
+        } else if (primitiveLayout != null) {
+            long prefix = keyPrefix.prefix(key);
+            long[] a = primitiveLayout;
+            while (i <= size) {
+                int cmp = Long.compareUnsigned(a[i], prefix);
+                if (cmp == 0) cmp = compare(asKey(layout[i]), key);
+                i = 2 * i + (cmp < 0 ? 1 : 0);
+            }
+        } else {
+            Object[] a = layout;
+            while (i <= size) {
+                i = 2 * i + (compare(asKey(a[i]), key) < 0 ? 1 : 0);
+            }
+        }
+        return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+    }
+
+    // Позиция первого ключа, не меньшего key (size — такого нет)
+    private int lowerBound(K key) {
+        return rank[lowerBoundIndex(key)];
+    }
+
+    // Позиция key или -1. В primitive-раскладке равенство проверяется по ней же, без чтения объекта ключа
+    private int find(K key) {
+        int index = lowerBoundIndex(key);
+        if (index == 0) return -1;
+        if (layout == null) {
+            return primitiveLayout[index] == primitiveKey(key) ? rank[index] : -1;
+        }
+        return compare(asKey(layout[index]), key) == 0 ? rank[index] : -1;
+    }
+
+    private long primitiveKey(K key) {
+        return intKeys ? (Integer) key : (Long) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    int compare(K a, K b) {
+        return comparator == null ? ((Comparable<? super K>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    @SuppressWarnings("unchecked")
+    K key(int position) {
+        return (K) keys[position];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K asKey(Object key) {
+        return (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int position) {
+        return (V) values[position];
+    }
+
+    // Запись по позиции; вне [0, size) — null
+    Map.Entry<K, V> entry(int position) {
+        return position >= 0 && position < size ? new AbstractMap.SimpleImmutableEntry<>(key(position), value(position)) : null;
+    }
+
+    private K keyOrNull(int position) {
+        return position >= 0 && position < size ? key(position) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    public V search(K key) {
+        int position = find(key);
+        return position >= 0 ? value(position) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return search((K) key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return find((K) key) >= 0;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        @SuppressWarnings("unchecked")
+        int position = find((K) key);
+        return position >= 0 ? value(position) : defaultValue;
+    }
+
+    // Позиция наибольшего ключа, меньшего key (inclusive — не большего)
+    int floorPosition(K key, boolean inclusive) {
+        int position = lowerBound(key);
+        return inclusive && position < size && compare(key(position), key) == 0 ? position : position - 1;
+    }
+
+    // Позиция наименьшего ключа, большего key (inclusive — не меньшего)
+    int ceilingPosition(K key, boolean inclusive) {
+        int position = lowerBound(key);
+        return !inclusive && position < size && compare(key(position), key) == 0 ? position + 1 : position;
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return entry(floorPosition(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(floorPosition(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return entry(floorPosition(key, true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorPosition(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return entry(ceilingPosition(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingPosition(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return entry(ceilingPosition(key, false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(ceilingPosition(key, false));
+    }
+
+    @Override
+    public K firstKey() {
+        if (size == 0) throw new NoSuchElementException();
+        return key(0);
+    }
+
+    @Override
+    public K lastKey() {
+        if (size == 0) throw new NoSuchElementException();
+        return key(size - 1);
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return entry(0);
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return entry(size - 1);
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    // Представления
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return fullRange.entrySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return fullRange.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return fullRange.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return fullRange.descendingKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return fullRange.descendingMap();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return fullRange.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return fullRange.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return fullRange.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return fullRange.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return fullRange.headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return fullRange.tailMap(fromKey);
+    }
+
+    // Количество ключей, меньших key
+    public int rank(K key) {
+        return lowerBound(key);
+    }
+
+    // Ключ с порядковым номером index по возрастанию
+    public K select(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return key(index);
+    }
+
+    // Количество ключей в [lo, hi]
+    public int countRange(K lo, K hi) {
+        if (compare(lo, hi) > 0) return 0;
+        return ceilingPosition(hi, false) - lowerBound(lo);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(key(i), value(i));
+        }
+    }
+
+    // Обход ключей диапазона по возрастанию; граница null — без ограничения
+    public void forEachInRange(K lo, boolean loInclusive, K hi, boolean hiInclusive,
+                               BiConsumer<? super K, ? super V> action) {
+        int from = lo == null ? 0 : ceilingPosition(lo, loInclusive);
+        int to = hi == null ? size : floorPosition(hi, hiInclusive) + 1;
+        for (int i = from; i < to; i++) {
+            action.accept(key(i), value(i));
+        }
+    }
+}
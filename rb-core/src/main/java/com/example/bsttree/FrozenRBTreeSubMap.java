@@ -0,0 +1,333 @@
+package com.example.bsttree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+// Представление диапазона ключей FrozenRBTree (subMap/headMap/tailMap/descendingMap), как RBTreeSubMap
+// у RBTree. Индекс не меняется, поэтому границы один раз переводятся в позиции [from, to) массива ключей:
+// размер — разность позиций, обход — по массиву, навигация — поиск в индексе и сравнение с позициями.
+// Границы-ключи хранятся в возрастающем порядке для проверки вложенных диапазонов; null — без границы.
+// Изменения — UnsupportedOperationException.
+class FrozenRBTreeSubMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final FrozenRBTree<K, V> tree;
+    private final K lo;
+    private final boolean loInclusive;
+    private final K hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+    private final int from; // Позиция первого ключа диапазона
+    private final int to;   // Позиция после последнего ключа диапазона
+
+    FrozenRBTreeSubMap(FrozenRBTree<K, V> tree, K lo, boolean loInclusive, K hi, boolean hiInclusive,
+                       boolean descending) {
+        if (lo != null && hi != null && tree.compare(lo, hi) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        this.tree = tree;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+        from = lo == null ? 0 : tree.ceilingPosition(lo, loInclusive);
+        to = Math.max(from, hi == null ? tree.size() : tree.floorPosition(hi, hiInclusive) + 1);
+    }
+
+    // Проверки границ
+
+    private boolean tooLow(K key) {
+        if (lo == null) return false;
+        int cmp = tree.compare(key, lo);
+        return cmp < 0 || (cmp == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+        if (hi == null) return false;
+        int cmp = tree.compare(key, hi);
+        return cmp > 0 || (cmp == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    // Ключ допустим как граница вложенного диапазона: исключающая граница может совпадать с нашей
+    private boolean inRange(K key, boolean inclusive) {
+        if (inclusive) return inRange(key);
+        return (lo == null || tree.compare(key, lo) >= 0) && (hi == null || tree.compare(key, hi) <= 0);
+    }
+
+    // Навигация в возрастающем порядке ключей; -1 — такого ключа в диапазоне нет
+
+    private int inside(int position) {
+        return position >= from && position < to ? position : -1;
+    }
+
+    private int absCeiling(K key, boolean inclusive) {
+        return inside(tooLow(key) ? from : tree.ceilingPosition(key, inclusive));
+    }
+
+    private int absFloor(K key, boolean inclusive) {
+        return inside(tooHigh(key) ? to - 1 : tree.floorPosition(key, inclusive));
+    }
+
+    // Навигация в порядке этого представления
+
+    private int first() {
+        return inside(descending ? to - 1 : from);
+    }
+
+    private int last() {
+        return inside(descending ? from : to - 1);
+    }
+
+    private int ceiling(K key, boolean inclusive) {
+        return descending ? absFloor(key, inclusive) : absCeiling(key, inclusive);
+    }
+
+    private int floor(K key, boolean inclusive) {
+        return descending ? absCeiling(key, inclusive) : absFloor(key, inclusive);
+    }
+
+    private K keyOrNull(int position) {
+        return position >= 0 ? tree.key(position) : null;
+    }
+
+    private K keyOrThrow(int position) {
+        if (position < 0) throw new NoSuchElementException();
+        return tree.key(position);
+    }
+
+    // Операции Map
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return inRange((K) key) && tree.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return inRange((K) key) ? tree.get(key) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<>() {
+                    private int next = first();
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        if (next < 0) throw new NoSuchElementException();
+                        Map.Entry<K, V> entry = tree.entry(next);
+                        next = inside(descending ? next - 1 : next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FrozenRBTreeSubMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return FrozenRBTreeSubMap.this.isEmpty();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry<?, ?> entry)) return false;
+                K key = (K) entry.getKey();
+                return inRange(key) && tree.containsKey(key) && Objects.equals(tree.get(key), entry.getValue());
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new RBTreeKeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return new RBTreeKeySet<>(descendingMap());
+    }
+
+    // Операции SortedMap/NavigableMap
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return tree.entry(first());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return tree.entry(last());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return tree.entry(floor(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(floor(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return tree.entry(floor(key, true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floor(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return tree.entry(ceiling(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceiling(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return tree.entry(ceiling(key, false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(ceiling(key, false));
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> descendingMap() {
+        return new FrozenRBTreeSubMap<>(tree, lo, loInclusive, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (!inRange(fromKey, fromInclusive)) throw new IllegalArgumentException("fromKey out of range");
+        if (!inRange(toKey, toInclusive)) throw new IllegalArgumentException("toKey out of range");
+        return descending
+                ? new FrozenRBTreeSubMap<>(tree, toKey, toInclusive, fromKey, fromInclusive, true)
+                : new FrozenRBTreeSubMap<>(tree, fromKey, fromInclusive, toKey, toInclusive, false);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive)) throw new IllegalArgumentException("toKey out of range");
+        return descending
+                ? new FrozenRBTreeSubMap<>(tree, toKey, inclusive, hi, hiInclusive, true)
+                : new FrozenRBTreeSubMap<>(tree, lo, loInclusive, toKey, inclusive, false);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive)) throw new IllegalArgumentException("fromKey out of range");
+        return descending
+                ? new FrozenRBTreeSubMap<>(tree, lo, loInclusive, fromKey, inclusive, true)
+                : new FrozenRBTreeSubMap<>(tree, fromKey, inclusive, hi, hiInclusive, false);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public FrozenRBTreeSubMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.bsttree;
+
+import java.util.Arrays;
+
+// Узлы в параллельных примитивных массивах в куче: для GC это пять объектов независимо от размера дерева
+final class HeapNodePool implements NodePool {
+    private long[] keys;
+    private long[] values;
+    private int[] left;
+    private int[] right;
+    private int[] parentAndColour;
+    private int next;      // Первый ни разу не выданный слот
+    private int freeHead;  // Голова списка освобождённых слотов (связан через left)
+    private int used;
+
+    HeapNodePool(int initialCapacity) {
+        allocateArrays(Math.max(initialCapacity, 16));
+        freeHead = NO_SLOT;
+    }
+
+    private void allocateArrays(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parentAndColour = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = keys.length;
+        if (capacity == Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Node pool is full");
+        }
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8L, capacity + (capacity >> 1) + 1L);
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        left = Arrays.copyOf(left, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+        parentAndColour = Arrays.copyOf(parentAndColour, newCapacity);
+    }
+
+    @Override
+    public int allocate() {
+        int slot;
+        if (freeHead != NO_SLOT) {
+            slot = freeHead;
+            freeHead = left[slot];
+        } else {
+            if (next == keys.length) {
+                grow();
+            }
+            slot = next++;
+        }
+        used++;
+        return slot;
+    }
+
+    @Override
+    public void free(int slot) {
+        left[slot] = freeHead;
+        freeHead = slot;
+        used--;
+    }
+
+    @Override
+    public void clear() {
+        next = 0;
+        freeHead = NO_SLOT;
+        used = 0;
+    }
+
+    @Override
+    public int used() {
+        return used;
+    }
+
+    @Override
+    public long key(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    public void setKey(int slot, long key) {
+        keys[slot] = key;
+    }
+
+    @Override
+    public long value(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    public void setValue(int slot, long value) {
+        values[slot] = value;
+    }
+
+    @Override
+    public int left(int slot) {
+        return left[slot];
+    }
+
+    @Override
+    public void setLeft(int slot, int left) {
+        this.left[slot] = left;
+    }
+
+    @Override
+    public int right(int slot) {
+        return right[slot];
+    }
+
+    @Override
+    public void setRight(int slot, int right) {
+        this.right[slot] = right;
+    }
+
+    @Override
+    public int parentAndColour(int slot) {
+        return parentAndColour[slot];
+    }
+
+    @Override
+    public void setParentAndColour(int slot, int parentAndColour) {
+        this.parentAndColour[slot] = parentAndColour;
+    }
+}
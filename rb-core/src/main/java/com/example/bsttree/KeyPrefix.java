@@ -0,0 +1,38 @@
+package com.example.bsttree;
+
+// Первые 8 байт ключа в виде long, сравниваемого без знака. Порядок префиксов согласован с порядком
+// ключей: если префикс a меньше префикса b, то и a < b; при равных префиксах нужно полное сравнение.
+interface KeyPrefix<K> {
+    // Общие экземпляры: деревья с одинаковым видом ключей можно сшивать только при одном и том же KeyPrefix
+    KeyPrefix<String> STRING = KeyPrefix::ofString;
+    KeyPrefix<byte[]> BYTES = KeyPrefix::ofBytes;
+
+    long prefix(K key);
+
+    // byte[] в порядке Arrays.compareUnsigned: 8 байт big-endian, короткий ключ добивается нулями
+    static long ofBytes(byte[] key) {
+        long prefix = 0;
+        int length = Math.min(key.length, Long.BYTES);
+        for (int i = 0; i < length; i++) {
+            prefix |= (key[i] & 0xFFL) << (56 - 8 * i);
+        }
+        return prefix;
+    }
+
+    // String в порядке String.compareTo: до 8 символов Latin-1 по байту на символ. Символ >= 0xFF
+    // кодируется как 0xFF и обрывает префикс (дальше нули), иначе разные символы слились бы в один
+    // байт и префикс мог бы дать неверный порядок.
+    static long ofString(String key) {
+        long prefix = 0;
+        int length = Math.min(key.length(), Long.BYTES);
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            int shift = 56 - 8 * i;
+            if (c >= 0xFF) {
+                return prefix | (0xFFL << shift);
+            }
+            prefix |= (long) c << shift;
+        }
+        return prefix;
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.bsttree;
+
+// Красно-черное дерево с ключами и значениями long: ключ и значение хранятся прямо в узле без упаковки в Long,
+// сравнение — обычными операторами < и >, один раз на уровень.
+public class LongLongRBTree {
+    private Entry root;
+    private int size;
+
+    // Узел с примитивным ключом
+    static final class Entry {
+        long key;
+        long value;
+        Entry left;
+        Entry right;
+        Entry parent;
+        boolean isRed;
+
+        Entry(long key, long value, Entry parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+            this.isRed = true;
+        }
+    }
+
+    // Обработчик пар ключ-значение для обхода без упаковки
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    public LongLongRBTree() {
+        root = null;
+        size = 0;
+    }
+
+    // Метод поиска узла по ключу (итеративная реализация)
+    private Entry findEntry(long key) {
+        Entry current = root;
+        while (current != null) {
+            if (key < current.key) {
+                current = current.left;
+            } else if (key > current.key) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    // Значение по ключу или defaultValue, если ключа нет
+    public long get(long key, long defaultValue) {
+        Entry entry = findEntry(key);
+        return entry != null ? entry.value : defaultValue;
+    }
+    public boolean containsKey(long key) {
+        return findEntry(key) != null;
+    }
+
+    // Вставка; для существующего ключа обновляет значение
+    public void insert(long key, long value) {
+        Entry parent = null;
+        Entry current = root;
+        while (current != null) {
+            parent = current;
+            if (key < current.key) {
+                current = current.left;
+            } else if (key > current.key) {
+                current = current.right;
+            } else {
+                current.value = value;
+                return;
+            }
+        }
+
+        Entry entry = new Entry(key, value, parent);
+        if (parent == null) {
+            root = entry;
+        } else if (key < parent.key) {
+            parent.left = entry;
+        } else {
+            parent.right = entry;
+        }
+        size++;
+        fixAfterInsert(entry);
+    }
+
+    public void put(long key, long value) {
+        insert(key, value);
+    }
+
+    public void delete(long key) {
+        Entry entry = findEntry(key);
+        if (entry != null) {
+            deleteEntry(entry);
+        }
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Обход в порядке возрастания ключей по ссылкам parent, без стека и без выделения памяти
+    public void forEach(EntryConsumer action) {
+        for (Entry e = first(root); e != null; e = successor(e)) {
+            action.accept(e.key, e.value);
+        }
+    }
+
+    private static Entry first(Entry node) {
+        if (node == null) return null;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Entry successor(Entry node) {
+        if (node.right != null) {
+            return first(node.right);
+        }
+        Entry parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private void deleteEntry(Entry entry) {
+        size--;
+
+        // У узла два потомка: переносим в него преемника и удаляем преемника
+        if (entry.left != null && entry.right != null) {
+            Entry next = first(entry.right);
+            entry.key = next.key;
+            entry.value = next.value;
+            entry = next;
+        }
+
+        Entry replacement = entry.left != null ? entry.left : entry.right;
+        if (replacement != null) {
+            replacement.parent = entry.parent;
+            if (entry.parent == null) {
+                root = replacement;
+            } else if (entry == entry.parent.left) {
+                entry.parent.left = replacement;
+            } else {
+                entry.parent.right = replacement;
+            }
+            entry.left = entry.right = entry.parent = null;
+            if (!entry.isRed) {
+                fixAfterDelete(replacement);
+            }
+        } else if (entry.parent == null) {
+            root = null;
+        } else {
+            // Лист: сначала восстанавливаем баланс, используя его как временный узел, затем отцепляем
+            if (!entry.isRed) {
+                fixAfterDelete(entry);
+            }
+            if (entry.parent != null) {
+                if (entry == entry.parent.left) {
+                    entry.parent.left = null;
+                } else if (entry == entry.parent.right) {
+                    entry.parent.right = null;
+                }
+                entry.parent = null;
+            }
+        }
+    }
+
+    private static boolean isRed(Entry node) {
+        return node != null && node.isRed;
+    }
+
+    private static void setRed(Entry node, boolean red) {
+        if (node != null) {
+            node.isRed = red;
+        }
+    }
+
+    private static Entry parentOf(Entry node) {
+        return node == null ? null : node.parent;
+    }
+
+    private static Entry leftOf(Entry node) {
+        return node == null ? null : node.left;
+    }
+
+    private static Entry rightOf(Entry node) {
+        return node == null ? null : node.right;
+    }
+
+    private void rotateLeft(Entry node) {
+        if (node == null) return;
+        Entry x = node.right;
+        node.right = x.left;
+        if (x.left != null) {
+            x.left.parent = node;
+        }
+        x.parent = node.parent;
+        if (node.parent == null) {
+            root = x;
+        } else if (node.parent.left == node) {
+            node.parent.left = x;
+        } else {
+            node.parent.right = x;
+        }
+        x.left = node;
+        node.parent = x;
+    }
+
+    private void rotateRight(Entry node) {
+        if (node == null) return;
+        Entry x = node.left;
+        node.left = x.right;
+        if (x.right != null) {
+            x.right.parent = node;
+        }
+        x.parent = node.parent;
+        if (node.parent == null) {
+            root = x;
+        } else if (node.parent.right == node) {
+            node.parent.right = x;
+        } else {
+            node.parent.left = x;
+        }
+        x.right = node;
+        node.parent = x;
+    }
+
+    private void fixAfterInsert(Entry node) {
+        while (node != root && isRed(node.parent)) {
+            Entry parent = node.parent;
+            Entry grandparent = parent.parent;
+            if (parent == grandparent.left) {
+                Entry uncle = grandparent.right;
+                if (isRed(uncle)) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    node = grandparent;
+                } else {
+                    if (node == parent.right) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = node.parent;
+                    }
+                    parent.isRed = false;
+                    grandparent.isRed = true;
+                    rotateRight(grandparent);
+                }
+            } else {
+                Entry uncle = grandparent.left;
+                if (isRed(uncle)) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    node = grandparent;
+                } else {
+                    if (node == parent.left) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = node.parent;
+                    }
+                    parent.isRed = false;
+                    grandparent.isRed = true;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.isRed = false;
+    }
+
+    private void fixAfterDelete(Entry node) {
+        while (node != root && !isRed(node)) {
+            if (node == leftOf(parentOf(node))) {
+                Entry sibling = rightOf(parentOf(node));
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(node), true);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+                if (!isRed(leftOf(sibling)) && !isRed(rightOf(sibling))) {
+                    setRed(sibling, true);
+                    node = parentOf(node);
+                } else {
+                    if (!isRed(rightOf(sibling))) {
+                        setRed(leftOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+                    setRed(sibling, isRed(parentOf(node)));
+                    setRed(parentOf(node), false);
+                    setRed(rightOf(sibling), false);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                Entry sibling = leftOf(parentOf(node));
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(node), true);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+                if (!isRed(rightOf(sibling)) && !isRed(leftOf(sibling))) {
+                    setRed(sibling, true);
+                    node = parentOf(node);
+                } else {
+                    if (!isRed(leftOf(sibling))) {
+                        setRed(rightOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setRed(sibling, isRed(parentOf(node)));
+                    setRed(parentOf(node), false);
+                    setRed(leftOf(sibling), false);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setRed(node, false);
+    }
+}
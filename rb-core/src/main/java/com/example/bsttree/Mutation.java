@@ -0,0 +1,42 @@
+package com.example.bsttree;
+
+import java.util.Objects;
+
+// Одно изменение для applyBatch: запись значения по ключу или удаление ключа
+public final class Mutation<K, V> {
+    private final K key;
+    private final V value;
+    private final boolean delete;
+
+    private Mutation(K key, V value, boolean delete) {
+        this.key = Objects.requireNonNull(key);
+        this.value = value;
+        this.delete = delete;
+    }
+
+    public static <K, V> Mutation<K, V> put(K key, V value) {
+        return new Mutation<>(key, value, false);
+    }
+
+    public static <K, V> Mutation<K, V> delete(K key) {
+        return new Mutation<>(key, null, true);
+    }
+
+    public K key() {
+        return key;
+    }
+
+    // Записываемое значение; у удаления — null
+    public V value() {
+        return value;
+    }
+
+    public boolean isDelete() {
+        return delete;
+    }
+
+    @Override
+    public String toString() {
+        return delete ? "delete " + key : "put " + key + "=" + value;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.bsttree;
+
+import java.util.Map;
+import java.util.Objects;
+
+// Узел дерева; он же запись Map.Entry, которую отдают итераторы entrySet без лишних выделений памяти
+class Node<K, V> implements Map.Entry<K, V> {
+    K key;
+    V value;
+    Node<K, V> left;
+    Node<K, V> right;
+    Node<K, V> parent; // Добавляем поле parent
+    boolean isRed;
+    int size; // Количество узлов в поддереве с корнем в этом узле
+
+    // Конструктор
+    public Node(K key, V value, boolean isRed) {
+        this.key = key;
+        this.value = value;
+        this.isRed = isRed;
+        this.left = null;
+        this.right = null;
+        this.parent = null; // Инициализируем parent как null
+        this.size = 1;
+    }
+
+    // Следующий по ключу узел: по ссылкам parent, без стека и без выделения памяти
+    static <K, V> Node<K, V> successor(Node<K, V> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        Node<K, V> parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Предыдущий по ключу узел
+    static <K, V> Node<K, V> predecessor(Node<K, V> node) {
+        if (node.left != null) {
+            node = node.left;
+            while (node.right != null) {
+                node = node.right;
+            }
+            return node;
+        }
+        Node<K, V> parent = node.parent;
+        while (parent != null && node == parent.left) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Следующий узел в прямом порядке (узел, левое поддерево, правое)
+    static <K, V> Node<K, V> preorderNext(Node<K, V> node) {
+        if (node.left != null) return node.left;
+        if (node.right != null) return node.right;
+        // Поднимаемся до предка, в левом поддереве которого мы были и у которого есть правое
+        Node<K, V> parent = node.parent;
+        while (parent != null && (node == parent.right || parent.right == null)) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent != null ? parent.right : null;
+    }
+
+    // Первый узел поддерева в обратном порядке (левое поддерево, правое, узел): самый левый из нижних
+    static <K, V> Node<K, V> postorderFirst(Node<K, V> node) {
+        while (true) {
+            if (node.left != null) {
+                node = node.left;
+            } else if (node.right != null) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    // Следующий узел в обратном порядке
+    static <K, V> Node<K, V> postorderNext(Node<K, V> node) {
+        Node<K, V> parent = node.parent;
+        if (parent == null || node == parent.right || parent.right == null) return parent;
+        return postorderFirst(parent.right);
+    }
+
+    @Override
+    public K getKey() {
+        return key;
+    }
+
+    @Override
+    public V getValue() {
+        return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+        V old = this.value;
+        this.value = value;
+        return old;
+    }
+
+    // Равенство и хеш-код по контракту Map.Entry
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Map.Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(key) ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + value;
+    }
+}
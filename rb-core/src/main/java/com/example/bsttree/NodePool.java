@@ -0,0 +1,41 @@
+package com.example.bsttree;
+
+// Хранилище узлов PooledLongRBTree: узел — это номер слота, поля лежат в примитивных массивах или вне кучи.
+// Цвет упакован в старший бит поля parent, поэтому номер слота ограничен 31 битом.
+interface NodePool {
+    int NO_SLOT = -1;
+    int RED_BIT = 0x8000_0000;
+
+    // Выдаёт свободный слот (сначала из списка освобождённых); содержимое слота не определено
+    int allocate();
+
+    // Возвращает слот в список свободных
+    void free(int slot);
+
+    // Освобождает все слоты
+    void clear();
+
+    // Число занятых слотов
+    int used();
+
+    long key(int slot);
+
+    void setKey(int slot, long key);
+
+    long value(int slot);
+
+    void setValue(int slot, long value);
+
+    int left(int slot);
+
+    void setLeft(int slot, int left);
+
+    int right(int slot);
+
+    void setRight(int slot, int right);
+
+    // Поле parent вместе с битом цвета
+    int parentAndColour(int slot);
+
+    void setParentAndColour(int slot, int parentAndColour);
+}
@@ -0,0 +1,137 @@
+package com.example.bsttree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// Узлы вне кучи: блоки прямых ByteBuffer по 64K слотов, по 32 байта на слот.
+// Блоки не превышают лимит 2 ГБ на буфер и не копируются при росте пула.
+final class OffHeapNodePool implements NodePool {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int SLOT_SHIFT = 5;
+
+    // Раскладка слота
+    private static final int KEY = 0;
+    private static final int VALUE = 8;
+    private static final int LEFT = 16;
+    private static final int RIGHT = 20;
+    private static final int PARENT = 24;
+
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+    private int next;
+    private int freeHead;
+    private int used;
+
+    OffHeapNodePool(int initialCapacity) {
+        chunks = new ByteBuffer[Math.max(1, (initialCapacity + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        freeHead = NO_SLOT;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot, int field) {
+        return ((slot & CHUNK_MASK) << SLOT_SHIFT) + field;
+    }
+
+    @Override
+    public int allocate() {
+        int slot;
+        if (freeHead != NO_SLOT) {
+            slot = freeHead;
+            freeHead = left(slot);
+        } else {
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Node pool is full");
+            }
+            slot = next++;
+            int chunkIndex = slot >>> CHUNK_SHIFT;
+            if (chunkIndex == chunkCount) {
+                if (chunkIndex == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                }
+                if (chunks[chunkIndex] == null) {
+                    chunks[chunkIndex] = ByteBuffer.allocateDirect((CHUNK_MASK + 1) << SLOT_SHIFT)
+                            .order(ByteOrder.nativeOrder());
+                }
+                chunkCount++;
+            }
+        }
+        used++;
+        return slot;
+    }
+
+    @Override
+    public void free(int slot) {
+        setLeft(slot, freeHead);
+        freeHead = slot;
+        used--;
+    }
+
+    @Override
+    public void clear() {
+        // Блоки остаются выделенными и переиспользуются
+        next = 0;
+        chunkCount = 0;
+        freeHead = NO_SLOT;
+        used = 0;
+    }
+
+    @Override
+    public int used() {
+        return used;
+    }
+
+    @Override
+    public long key(int slot) {
+        return chunk(slot).getLong(offset(slot, KEY));
+    }
+
+    @Override
+    public void setKey(int slot, long key) {
+        chunk(slot).putLong(offset(slot, KEY), key);
+    }
+
+    @Override
+    public long value(int slot) {
+        return chunk(slot).getLong(offset(slot, VALUE));
+    }
+
+    @Override
+    public void setValue(int slot, long value) {
+        chunk(slot).putLong(offset(slot, VALUE), value);
+    }
+
+    @Override
+    public int left(int slot) {
+        return chunk(slot).getInt(offset(slot, LEFT));
+    }
+
+    @Override
+    public void setLeft(int slot, int left) {
+        chunk(slot).putInt(offset(slot, LEFT), left);
+    }
+
+    @Override
+    public int right(int slot) {
+        return chunk(slot).getInt(offset(slot, RIGHT));
+    }
+
+    @Override
+    public void setRight(int slot, int right) {
+        chunk(slot).putInt(offset(slot, RIGHT), right);
+    }
+
+    @Override
+    public int parentAndColour(int slot) {
+        return chunk(slot).getInt(offset(slot, PARENT));
+    }
+
+    @Override
+    public void setParentAndColour(int slot, int parentAndColour) {
+        chunk(slot).putInt(offset(slot, PARENT), parentAndColour);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.bsttree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+
+// Неизменяемое (персистентное) левостороннее красно-черное дерево.
+// insert и delete не меняют дерево, а возвращают новое: копируется только путь от корня (O(log n) узлов),
+// остальные узлы общие. Снимок состояния — просто сохранённая ссылка на дерево, O(1).
+public final class PersistentRBTree<K extends Comparable<K>, V> {
+    private static final PersistentRBTree<?, ?> EMPTY = new PersistentRBTree<>(null);
+
+    private final Entry<K, V> root;
+
+    // Неизменяемый узел; без ссылки на родителя, иначе общие поддеревья пришлось бы копировать
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final Entry<K, V> left;
+        final Entry<K, V> right;
+        final boolean isRed;
+        final int size;
+
+        Entry(K key, V value, Entry<K, V> left, Entry<K, V> right, boolean isRed) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.isRed = isRed;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Entry<K, V> withLeft(Entry<K, V> newLeft) {
+            return newLeft == left ? this : new Entry<>(key, value, newLeft, right, isRed);
+        }
+
+        Entry<K, V> withRight(Entry<K, V> newRight) {
+            return newRight == right ? this : new Entry<>(key, value, left, newRight, isRed);
+        }
+
+        Entry<K, V> withColor(boolean red) {
+            return red == isRed ? this : new Entry<>(key, value, left, right, red);
+        }
+    }
+
+    private PersistentRBTree(Entry<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> PersistentRBTree<K, V> empty() {
+        return (PersistentRBTree<K, V>) EMPTY;
+    }
+
+    private static int size(Entry<?, ?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static boolean isRed(Entry<?, ?> node) {
+        return node != null && node.isRed;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Метод поиска узла по ключу (итеративная реализация)
+    private Entry<K, V> findEntry(K key) {
+        Entry<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    public V search(K key) {
+        Entry<K, V> entry = findEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public boolean containsKey(K key) {
+        return findEntry(key) != null;
+    }
+
+    // Новое дерево с парой key -> value; для существующего ключа значение заменяется
+    public PersistentRBTree<K, V> insert(K key, V value) {
+        Entry<K, V> newRoot = insert(root, key, value).withColor(false);
+        return newRoot == root ? this : new PersistentRBTree<>(newRoot);
+    }
+
+    public PersistentRBTree<K, V> put(K key, V value) {
+        return insert(key, value);
+    }
+
+    // Новое дерево без ключа key; если ключа нет, возвращается это же дерево
+    public PersistentRBTree<K, V> delete(K key) {
+        if (findEntry(key) == null) return this;
+        Entry<K, V> newRoot = root;
+        if (!isRed(root.left) && !isRed(root.right)) {
+            newRoot = root.withColor(true); // Если оба потомка корня черные, делаем корень красным
+        }
+        newRoot = delete(newRoot, key);
+        return newRoot == null ? empty() : new PersistentRBTree<>(newRoot.withColor(false));
+    }
+
+    // Обход всех пар ключ-значение в порядке возрастания ключей (итеративно, без рекурсии)
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Deque<Entry<K, V>> path = new ArrayDeque<>();
+        Entry<K, V> current = root;
+        while (current != null || !path.isEmpty()) {
+            while (current != null) {
+                path.push(current);
+                current = current.left;
+            }
+            current = path.pop();
+            action.accept(current.key, current.value);
+            current = current.right;
+        }
+    }
+
+    private Entry<K, V> insert(Entry<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Entry<>(key, value, null, null, true);
+        }
+
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            node = node.withLeft(insert(node.left, key, value));
+        } else if (cmp > 0) {
+            node = node.withRight(insert(node.right, key, value));
+        } else if (node.value != value) {
+            node = new Entry<>(key, value, node.left, node.right, node.isRed);
+        }
+        return balance(node);
+    }
+
+    private Entry<K, V> delete(Entry<K, V> node, K key) {
+        if (key.compareTo(node.key) < 0) {
+            if (!isRed(node.left) && !isRed(node.left.left)) {
+                node = moveRedLeft(node);
+            }
+            node = node.withLeft(delete(node.left, key));
+        } else {
+            if (isRed(node.left)) {
+                node = rotateRight(node);
+            }
+            if (key.compareTo(node.key) == 0 && node.right == null) {
+                return null;
+            }
+            if (!isRed(node.right) && !isRed(node.right.left)) {
+                node = moveRedRight(node);
+            }
+            if (key.compareTo(node.key) == 0) {
+                // Заменяем удаляемый узел минимальным узлом правого поддерева
+                Entry<K, V> minNode = node.right;
+                while (minNode.left != null) {
+                    minNode = minNode.left;
+                }
+                node = new Entry<>(minNode.key, minNode.value, node.left, deleteMin(node.right), node.isRed);
+            } else {
+                node = node.withRight(delete(node.right, key));
+            }
+        }
+        return balance(node);
+    }
+
+    private Entry<K, V> deleteMin(Entry<K, V> node) {
+        if (node.left == null) return null;
+        if (!isRed(node.left) && !isRed(node.left.left)) {
+            node = moveRedLeft(node);
+        }
+        return balance(node.withLeft(deleteMin(node.left)));
+    }
+
+    private Entry<K, V> rotateLeft(Entry<K, V> node) {
+        Entry<K, V> x = node.right;
+        Entry<K, V> lowered = new Entry<>(node.key, node.value, node.left, x.left, true);
+        return new Entry<>(x.key, x.value, lowered, x.right, node.isRed);
+    }
+
+    private Entry<K, V> rotateRight(Entry<K, V> node) {
+        Entry<K, V> x = node.left;
+        Entry<K, V> lowered = new Entry<>(node.key, node.value, x.right, node.right, true);
+        return new Entry<>(x.key, x.value, x.left, lowered, node.isRed);
+    }
+
+    private Entry<K, V> flipColors(Entry<K, V> node) {
+        return new Entry<>(node.key, node.value, node.left.withColor(!node.left.isRed),
+                node.right.withColor(!node.right.isRed), !node.isRed);
+    }
+
+    // Метод для перемещения красной нити влево
+    private Entry<K, V> moveRedLeft(Entry<K, V> node) {
+        node = flipColors(node);
+        if (isRed(node.right.left)) {
+            node = rotateLeft(node.withRight(rotateRight(node.right)));
+            node = flipColors(node);
+        }
+        return node;
+    }
+
+    // Метод для перемещения красной нити вправо
+    private Entry<K, V> moveRedRight(Entry<K, V> node) {
+        node = flipColors(node);
+        if (isRed(node.left.left)) {
+            node = flipColors(rotateRight(node));
+        }
+        return node;
+    }
+
+    private Entry<K, V> balance(Entry<K, V> node) {
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = rotateLeft(node);
+        }
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rotateRight(node);
+        }
+        if (isRed(node.left) && isRed(node.right)) {
+            node = flipColors(node);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.bsttree;
+
+// Красно-черное дерево long -> long поверх пула узлов: вместо объектов Node — номера слотов,
+// ссылки left/right/parent — int-индексы, цвет — старший бит parent. Освобождённые слоты
+// переиспользуются, так что число объектов в куче (и работа GC) не зависит от числа узлов.
+public class PooledLongRBTree {
+    private static final int NIL = 0; // Слот-страж: чёрный лист, общий для всех узлов
+
+    private final NodePool pool;
+    private int root;
+    private int size;
+
+    PooledLongRBTree(NodePool pool) {
+        this.pool = pool;
+        clear();
+    }
+
+    // Пул в примитивных массивах в куче
+    public static PooledLongRBTree onHeap(int initialCapacity) {
+        return new PooledLongRBTree(new HeapNodePool(initialCapacity));
+    }
+
+    // Пул в прямых ByteBuffer вне кучи
+    public static PooledLongRBTree offHeap(int initialCapacity) {
+        return new PooledLongRBTree(new OffHeapNodePool(initialCapacity));
+    }
+
+    public void clear() {
+        pool.clear();
+        int nil = pool.allocate();
+        assert nil == NIL;
+        pool.setLeft(NIL, NIL);
+        pool.setRight(NIL, NIL);
+        pool.setParentAndColour(NIL, NIL);
+        root = NIL;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    private int parent(int slot) {
+        return pool.parentAndColour(slot) & ~NodePool.RED_BIT;
+    }
+
+    private void setParent(int slot, int parent) {
+        pool.setParentAndColour(slot, (pool.parentAndColour(slot) & NodePool.RED_BIT) | parent);
+    }
+
+    private boolean isRed(int slot) {
+        return (pool.parentAndColour(slot) & NodePool.RED_BIT) != 0;
+    }
+
+    private void setRed(int slot, boolean red) {
+        int packed = pool.parentAndColour(slot);
+        pool.setParentAndColour(slot, red ? packed | NodePool.RED_BIT : packed & ~NodePool.RED_BIT);
+    }
+
+    // Метод поиска узла по ключу (итеративная реализация)
+    private int findSlot(long key) {
+        int current = root;
+        while (current != NIL) {
+            long currentKey = pool.key(current);
+            if (key < currentKey) {
+                current = pool.left(current);
+            } else if (key > currentKey) {
+                current = pool.right(current);
+            } else {
+                return current;
+            }
+        }
+        return NIL;
+    }
+
+    // Значение по ключу или defaultValue, если ключа нет
+    public long get(long key, long defaultValue) {
+        int slot = findSlot(key);
+        return slot != NIL ? pool.value(slot) : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return findSlot(key) != NIL;
+    }
+
+    // Вставка; для существующего ключа обновляет значение
+    public void insert(long key, long value) {
+        int parent = NIL;
+        int current = root;
+        while (current != NIL) {
+            parent = current;
+            long currentKey = pool.key(current);
+            if (key < currentKey) {
+                current = pool.left(current);
+            } else if (key > currentKey) {
+                current = pool.right(current);
+            } else {
+                pool.setValue(current, value);
+                return;
+            }
+        }
+
+        int slot = pool.allocate();
+        pool.setKey(slot, key);
+        pool.setValue(slot, value);
+        pool.setLeft(slot, NIL);
+        pool.setRight(slot, NIL);
+        pool.setParentAndColour(slot, parent | NodePool.RED_BIT);
+        if (parent == NIL) {
+            root = slot;
+        } else if (key < pool.key(parent)) {
+            pool.setLeft(parent, slot);
+        } else {
+            pool.setRight(parent, slot);
+        }
+        size++;
+        fixAfterInsert(slot);
+    }
+
+    public void put(long key, long value) {
+        insert(key, value);
+    }
+
+    public void delete(long key) {
+        int slot = findSlot(key);
+        if (slot != NIL) {
+            deleteSlot(slot);
+        }
+    }
+
+    // Обход в порядке возрастания ключей по индексам parent, без выделения памяти
+    public void forEach(LongLongRBTree.EntryConsumer action) {
+        for (int slot = first(root); slot != NIL; slot = successor(slot)) {
+            action.accept(pool.key(slot), pool.value(slot));
+        }
+    }
+
+    private int first(int slot) {
+        if (slot == NIL) return NIL;
+        while (pool.left(slot) != NIL) {
+            slot = pool.left(slot);
+        }
+        return slot;
+    }
+
+    private int successor(int slot) {
+        if (pool.right(slot) != NIL) {
+            return first(pool.right(slot));
+        }
+        int parent = parent(slot);
+        while (parent != NIL && slot == pool.right(parent)) {
+            slot = parent;
+            parent = parent(parent);
+        }
+        return parent;
+    }
+
+    private void rotateLeft(int node) {
+        int x = pool.right(node);
+        int xLeft = pool.left(x);
+        pool.setRight(node, xLeft);
+        if (xLeft != NIL) {
+            setParent(xLeft, node);
+        }
+        int parent = parent(node);
+        setParent(x, parent);
+        if (parent == NIL) {
+            root = x;
+        } else if (node == pool.left(parent)) {
+            pool.setLeft(parent, x);
+        } else {
+            pool.setRight(parent, x);
+        }
+        pool.setLeft(x, node);
+        setParent(node, x);
+    }
+
+    private void rotateRight(int node) {
+        int x = pool.left(node);
+        int xRight = pool.right(x);
+        pool.setLeft(node, xRight);
+        if (xRight != NIL) {
+            setParent(xRight, node);
+        }
+        int parent = parent(node);
+        setParent(x, parent);
+        if (parent == NIL) {
+            root = x;
+        } else if (node == pool.right(parent)) {
+            pool.setRight(parent, x);
+        } else {
+            pool.setLeft(parent, x);
+        }
+        pool.setRight(x, node);
+        setParent(node, x);
+    }
+
+    private void fixAfterInsert(int node) {
+        while (isRed(parent(node))) {
+            int parent = parent(node);
+            int grandparent = parent(parent);
+            if (parent == pool.left(grandparent)) {
+                int uncle = pool.right(grandparent);
+                if (isRed(uncle)) {
+                    setRed(parent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == pool.right(parent)) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = parent(node);
+                    }
+                    setRed(parent, false);
+                    setRed(grandparent, true);
+                    rotateRight(grandparent);
+                }
+            } else {
+                int uncle = pool.left(grandparent);
+                if (isRed(uncle)) {
+                    setRed(parent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == pool.left(parent)) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = parent(node);
+                    }
+                    setRed(parent, false);
+                    setRed(grandparent, true);
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        setRed(root, false);
+    }
+
+    // Ставит поддерево replacement на место узла target
+    private void transplant(int target, int replacement) {
+        int parent = parent(target);
+        if (parent == NIL) {
+            root = replacement;
+        } else if (target == pool.left(parent)) {
+            pool.setLeft(parent, replacement);
+        } else {
+            pool.setRight(parent, replacement);
+        }
+        // Пишем и в страж: fixAfterDelete поднимается от него по parent
+        setParent(replacement, parent);
+    }
+
+    private void deleteSlot(int node) {
+        int moved = node;
+        boolean movedWasRed = isRed(moved);
+        int fixFrom;
+        if (pool.left(node) == NIL) {
+            fixFrom = pool.right(node);
+            transplant(node, fixFrom);
+        } else if (pool.right(node) == NIL) {
+            fixFrom = pool.left(node);
+            transplant(node, fixFrom);
+        } else {
+            // Два потомка: на место узла встаёт его преемник
+            moved = first(pool.right(node));
+            movedWasRed = isRed(moved);
+            fixFrom = pool.right(moved);
+            if (parent(moved) == node) {
+                setParent(fixFrom, moved);
+            } else {
+                transplant(moved, fixFrom);
+                pool.setRight(moved, pool.right(node));
+                setParent(pool.right(moved), moved);
+            }
+            transplant(node, moved);
+            pool.setLeft(moved, pool.left(node));
+            setParent(pool.left(moved), moved);
+            setRed(moved, isRed(node));
+        }
+        if (!movedWasRed) {
+            fixAfterDelete(fixFrom);
+        }
+        pool.free(node);
+        size--;
+    }
+
+    private void fixAfterDelete(int node) {
+        while (node != root && !isRed(node)) {
+            int parent = parent(node);
+            if (node == pool.left(parent)) {
+                int sibling = pool.right(parent);
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parent, true);
+                    rotateLeft(parent);
+                    sibling = pool.right(parent);
+                }
+                if (!isRed(pool.left(sibling)) && !isRed(pool.right(sibling))) {
+                    setRed(sibling, true);
+                    node = parent;
+                } else {
+                    if (!isRed(pool.right(sibling))) {
+                        setRed(pool.left(sibling), false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = pool.right(parent);
+                    }
+                    setRed(sibling, isRed(parent));
+                    setRed(parent, false);
+                    setRed(pool.right(sibling), false);
+                    rotateLeft(parent);
+                    node = root;
+                }
+            } else {
+                int sibling = pool.left(parent);
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parent, true);
+                    rotateRight(parent);
+                    sibling = pool.left(parent);
+                }
+                if (!isRed(pool.right(sibling)) && !isRed(pool.left(sibling))) {
+                    setRed(sibling, true);
+                    node = parent;
+                } else {
+                    if (!isRed(pool.left(sibling))) {
+                        setRed(pool.right(sibling), false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = pool.left(parent);
+                    }
+                    setRed(sibling, isRed(parent));
+                    setRed(parent, false);
+                    setRed(pool.left(sibling), false);
+                    rotateRight(parent);
+                    node = root;
+                }
+            }
+        }
+        setRed(node, false);
+    }
+}
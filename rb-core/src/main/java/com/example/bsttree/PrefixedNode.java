@@ -0,0 +1,12 @@
+package com.example.bsttree;
+
+// Узел с префиксом ключа: при спуске большинство сравнений решается одним сравнением long,
+// не обращаясь к массиву символов или байтов ключа
+final class PrefixedNode<K, V> extends Node<K, V> {
+    final long prefix;
+
+    PrefixedNode(K key, V value, boolean isRed, long prefix) {
+        super(key, value, isRed);
+        this.prefix = prefix;
+    }
+}
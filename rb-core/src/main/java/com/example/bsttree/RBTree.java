@@ -0,0 +1,1509 @@
+package com.example.bsttree;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class RBTree<K, V> implements NavigableMap<K, V> {
+    private static final Comparator<byte[]> UNSIGNED_BYTES = Arrays::compareUnsigned;
+    private static final int TRAVERSAL_CHUNK = 8192; // Размер порции текста в writeTraversal
+
+    private final Comparator<? super K> comparator; // null — естественный порядок ключей
+    private final KeyPrefix<? super K> keyPrefix;   // null — узлы без префикса ключа
+    private Node<K, V> root;
+    private RBTreeMetrics metrics; // null — счётчики не ведутся
+    int modCount; // Число структурных изменений, для fail-fast итераторов
+
+    // Место вставки, найденное последним findForUpdate: родитель нового узла и сторона (знак сравнения).
+    // Вложенный вызов из пользовательской функции перезаписывает их, поэтому compute и подобные
+    // копируют их в локальные переменные до вызова функции
+    private Node<K, V> insertParent;
+    private int insertCmp;
+
+    private Node<K, V> maxNode;   // Узел с максимальным ключом: вставка за максимум идёт без спуска
+    private boolean fingerSearch; // Режим поиска от последнего найденного узла
+    private Node<K, V> finger;    // Последний найденный или вставленный узел в режиме fingerSearch
+
+    // Представление всего дерева, через которое реализованы навигация и представления NavigableMap
+    private final RBTreeSubMap<K, V> fullRange = new RBTreeSubMap<>(this, null, false, null, false, false);
+
+    // Конструктор
+    public RBTree() {
+        this(null, null);
+    }
+
+    // Дерево с порядком ключей, заданным компаратором (null — естественный порядок)
+    public RBTree(Comparator<? super K> comparator) {
+        this(comparator, null);
+    }
+
+    private RBTree(Comparator<? super K> comparator, KeyPrefix<? super K> keyPrefix) {
+        this.comparator = comparator;
+        this.keyPrefix = keyPrefix;
+        root = null;
+    }
+
+    // Дерево для длинных строковых ключей: в каждом узле хранится префикс ключа (до 8 символов),
+    // и при спуске до сравнения строк обычно не доходит. Общее у всех ключей начало (например,
+    // "https://") префикс не различает — его выгоднее отрезать до вставки.
+    public static <V> RBTree<String, V> forStringKeys() {
+        return new RBTree<>(null, KeyPrefix.STRING);
+    }
+
+    // Дерево с ключами byte[] в беззнаковом лексикографическом порядке, с префиксом ключа в узлах
+    public static <V> RBTree<byte[], V> forByteArrayKeys() {
+        return new RBTree<>(UNSIGNED_BYTES, KeyPrefix.BYTES);
+    }
+
+    // Подключение счётчиков (null — отключение). Подключать до того, как дерево станут читать другие потоки
+    public void setMetrics(RBTreeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public RBTreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Время начала операции для record; 0 без счётчиков или без записи задержек
+    long startTime() {
+        RBTreeMetrics metrics = this.metrics;
+        return metrics != null ? metrics.startTime() : 0;
+    }
+
+    void record(RBTreeMetrics.Operation operation, boolean hit, long startTime) {
+        RBTreeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.record(operation, hit, startTime);
+    }
+
+    void recordDescent(int length) {
+        RBTreeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordDescent(length);
+    }
+
+    // Конструктор копирования
+    // Полная копия за O(n); для частых снимков дешевле PersistentRBTree, где снимок — это ссылка.
+    // Копия пишет в те же счётчики, что и оригинал
+    public RBTree(RBTree<K, V> other) {
+        comparator = other.comparator;
+        keyPrefix = other.keyPrefix;
+        metrics = other.metrics;
+        root = copyNode(other.root, null);
+        maxNode = lastNode(root);
+    }
+
+    private Node<K, V> copyNode(Node<K, V> node, Node<K, V> parent) {
+        if (node == null) return null;
+        Node<K, V> newNode = newNode(node.key, node.value, node.isRed);
+        newNode.parent = parent;
+        newNode.left = copyNode(node.left, newNode);
+        newNode.right = copyNode(node.right, newNode);
+        newNode.size = node.size;
+        return newNode;
+    }
+
+    // Построение дерева за O(n) из ключей, строго возрастающих вместе со значениями
+    public static <K extends Comparable<K>, V> RBTree<K, V> fromSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        return fromSorted(new SortedInput<K, V>() {
+            private int next;
+
+            @Override
+            void load() {
+                key = keys[next];
+                value = values[next++];
+            }
+        }, keys.length);
+    }
+
+    // Построение дерева за O(n) из size записей, упорядоченных по строго возрастающим ключам
+    public static <K extends Comparable<K>, V> RBTree<K, V> fromSorted(Iterator<? extends Map.Entry<K, V>> entries, int size) {
+        return fromSorted(new SortedInput<K, V>() {
+            @Override
+            void load() {
+                Map.Entry<K, V> entry = entries.next();
+                key = entry.getKey();
+                value = entry.getValue();
+            }
+        }, size);
+    }
+
+    // Параллельная сортировка и построение за O(n); при повторе ключа остаётся последнее значение, как при insert
+    public static <K extends Comparable<K>, V> RBTree<K, V> fromUnsorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        @SuppressWarnings("unchecked")
+        Map.Entry<K, V>[] entries = (Map.Entry<K, V>[]) new Map.Entry<?, ?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            entries[i] = new AbstractMap.SimpleImmutableEntry<>(keys[i], values[i]);
+        }
+        // Сортировка устойчивая, поэтому среди равных ключей последним идёт последний вставленный
+        Arrays.parallelSort(entries, Map.Entry.comparingByKey());
+        int count = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (count > 0 && entries[count - 1].getKey().compareTo(entries[i].getKey()) == 0) {
+                entries[count - 1] = entries[i];
+            } else {
+                entries[count++] = entries[i];
+            }
+        }
+        return fromSorted(Arrays.asList(entries).subList(0, count).iterator(), count);
+    }
+
+    private static <K extends Comparable<K>, V> RBTree<K, V> fromSorted(SortedInput<K, V> input, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        RBTree<K, V> tree = new RBTree<>();
+        tree.root = tree.buildFromSorted(0, 0, size - 1, redLevel(size), input);
+        tree.maxNode = lastNode(tree.root);
+        return tree;
+    }
+
+    // Источник отсортированных пар для buildFromSorted; проверяет строгий порядок ключей
+    private abstract static class SortedInput<K, V> {
+        K key;
+        V value;
+        private K previous;
+        private boolean started;
+
+        abstract void load();
+
+        final void advance(RBTree<K, ?> tree) {
+            load();
+            if (started && tree.compare(previous, key) >= 0) {
+                throw new IllegalArgumentException("Keys are not strictly increasing: " + previous + ", " + key);
+            }
+            previous = key;
+            started = true;
+        }
+    }
+
+    // Уровень, на котором узлы красные: последний, если он заполнен не полностью.
+    // Остальные уровни полные и чёрные, так что чёрная высота одинакова на всех путях.
+    private static int redLevel(int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    // Строит поддерево из записей lo..hi в симметричном порядке, поэтому вход читается один раз подряд
+    private Node<K, V> buildFromSorted(int level, int lo, int hi, int redLevel, SortedInput<K, V> input) {
+        if (hi < lo) return null;
+        int mid = (lo + hi) >>> 1;
+
+        Node<K, V> left = buildFromSorted(level + 1, lo, mid - 1, redLevel, input);
+        input.advance(this);
+        Node<K, V> node = newNode(input.key, input.value, level == redLevel);
+        node.left = left;
+        if (left != null) {
+            left.parent = node;
+        }
+        Node<K, V> right = buildFromSorted(level + 1, mid + 1, hi, redLevel, input);
+        node.right = right;
+        if (right != null) {
+            right.parent = node;
+        }
+        node.size = hi - lo + 1;
+        return node;
+    }
+
+    // Метод поиска узла по ключу (итеративная реализация)
+    Node<K, V> findNode(K key) {
+        long prefix = prefixOf(key);
+        Node<K, V> current = fingerSearch ? fingerStart(key, prefix) : root;
+        int length = 0; // Длина пути для счётчиков
+        while (current != null) {
+            length++;
+            int cmp = compare(key, prefix, current);
+            if (cmp == 0) {
+                if (fingerSearch) finger = current;
+                break;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        recordDescent(length);
+        return current;
+    }
+
+    // Поиск от последнего найденного узла: для ключей, которые идут подряд или рядом (метки времени,
+    // чтение кластерами), спуск начинается не от корня, а от ближайшего общего предка с пальцем,
+    // так что поиск стоит O(log d), где d — расстояние между соседними по времени ключами.
+    // В этом режиме и чтение меняет дерево (указатель finger), поэтому читать параллельно,
+    // даже под блокировкой на чтение, нельзя.
+    public void setFingerSearch(boolean enabled) {
+        fingerSearch = enabled;
+        finger = null;
+    }
+
+    public boolean isFingerSearch() {
+        return fingerSearch;
+    }
+
+    // Поднимаемся от пальца, пока key не окажется в диапазоне ключей поддерева; с его корня и начинается спуск
+    private Node<K, V> fingerStart(K key, long prefix) {
+        Node<K, V> current = finger;
+        if (current == null) return root;
+        int cmp = compare(key, prefix, current);
+        if (cmp == 0) return current;
+        for (Node<K, V> parent = current.parent; parent != null; current = parent, parent = parent.parent) {
+            // Родитель ограничивает поддерево current с той стороны, куда идём, только если current —
+            // его левый потомок при движении вправо (или правый при движении влево)
+            if ((cmp > 0) == (current == parent.left)) {
+                int parentCmp = compare(key, prefix, parent);
+                if (parentCmp == 0) return parent;
+                if ((parentCmp > 0) != (cmp > 0)) return current;
+            }
+        }
+        return current;
+    }
+
+    // Корень для обходов, которые идут по узлам сами (оптимистичное чтение в ConcurrentRBTree)
+    Node<K, V> rootNode() {
+        return root;
+    }
+
+    // Сравнение ключей: компаратор дерева или естественный порядок
+    @SuppressWarnings("unchecked")
+    final int compare(K a, K b) {
+        RBTreeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordComparison();
+        return comparator == null ? ((Comparable<? super K>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    // Префикс искомого ключа считается один раз на спуск; без префиксов — 0
+    private long prefixOf(K key) {
+        return keyPrefix != null ? keyPrefix.prefix(key) : 0;
+    }
+
+    // Одно трёхзначное сравнение ключа с узлом; в узлах с префиксом ключ читается, только если префиксы равны
+    private int compare(K key, long prefix, Node<K, V> node) {
+        if (keyPrefix != null) {
+            int cmp = Long.compareUnsigned(prefix, ((PrefixedNode<K, V>) node).prefix);
+            if (cmp != 0) return cmp;
+        }
+        return compare(key, node.key);
+    }
+
+    private Node<K, V> newNode(K key, V value, boolean isRed) {
+        return keyPrefix != null ? new PrefixedNode<>(key, value, isRed, keyPrefix.prefix(key)) : new Node<>(key, value, isRed);
+    }
+
+    public void insert(K key, V value) {
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        if (node != null) {
+            node.value = value; // Ключ уже существует, обновляем значение
+        } else {
+            attach(key, value);
+        }
+        record(node != null ? RBTreeMetrics.Operation.UPDATE : RBTreeMetrics.Operation.INSERT, node != null, start);
+    }
+    public V search(K key) {
+        long start = startTime();
+        Node<K, V> node = findNode(key);
+        record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+        return node != null ? node.value : null;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        maxNode = null;
+        finger = null;
+        modCount++;
+    }
+
+    private boolean isRed(Node<K, V> node) {
+        return node != null && node.isRed;
+    }
+
+    // Размер поддерева за O(1)
+    private int size(Node<K, V> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private void updateSize(Node<K, V> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // Левый поворот вокруг node: правый потомок занимает место node у его родителя (или в корне)
+    private void rotateLeft(Node<K, V> node) {
+        Node<K, V> x = node.right;
+        node.right = x.left;
+        if (x.left != null) {
+            x.left.parent = node;
+        }
+        replaceChild(node, x);
+        x.left = node;
+        node.parent = x;
+        x.size = node.size;
+        updateSize(node);
+        if (metrics != null) metrics.recordRotation();
+    }
+
+    // Правый поворот вокруг node: левый потомок занимает место node у его родителя (или в корне)
+    private void rotateRight(Node<K, V> node) {
+        Node<K, V> x = node.left;
+        node.left = x.right;
+        if (x.right != null) {
+            x.right.parent = node;
+        }
+        replaceChild(node, x);
+        x.right = node;
+        node.parent = x;
+        x.size = node.size;
+        updateSize(node);
+        if (metrics != null) metrics.recordRotation();
+    }
+
+    // Ставим newNode на место oldNode у родителя oldNode; если oldNode был корнем, меняем корень
+    private void replaceChild(Node<K, V> oldNode, Node<K, V> newNode) {
+        Node<K, V> parent = oldNode.parent;
+        if (parent == null) {
+            root = newNode;
+        } else if (oldNode == parent.left) {
+            parent.left = newNode;
+        } else {
+            parent.right = newNode;
+        }
+        if (newNode != null) {
+            newNode.parent = parent;
+        }
+    }
+
+    public void delete(K key) {
+        long start = startTime();
+        Node<K, V> node = findNode(key);
+        if (node != null) { // Если узел с таким ключом не найден, ничего не делаем
+            deleteIterative(node);
+        }
+        record(RBTreeMetrics.Operation.DELETE, node != null, start);
+    }
+
+    // Метод для нахождения узла с минимальным ключом в поддереве с корнем node
+    private Node<K, V> findMin(Node<K, V> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    // Спуск для изменения: узел с ключом key, а если его нет — null, и место для нового узла
+    // запоминается в insertParent/insertCmp, чтобы attach вставил его без второго спуска
+    private Node<K, V> findForUpdate(K key) {
+        // Быстрый путь для дописывания в конец: ключ больше максимума становится его правым потомком
+        long prefix = prefixOf(key);
+        if (maxNode != null) {
+            int cmp = compare(key, prefix, maxNode);
+            if (cmp >= 0) {
+                recordDescent(1);
+                if (cmp == 0) return maxNode;
+                insertParent = maxNode;
+                insertCmp = cmp;
+                return null;
+            }
+        }
+        Node<K, V> parent = null;
+        Node<K, V> current = fingerSearch ? fingerStart(key, prefix) : root;
+        int cmp = 0;
+        int length = 0;
+        while (current != null) {
+            length++;
+            cmp = compare(key, prefix, current);
+            if (cmp == 0) {
+                if (fingerSearch) finger = current;
+                recordDescent(length);
+                return current;
+            }
+            parent = current;
+            current = cmp < 0 ? current.left : current.right;
+        }
+        recordDescent(length);
+        insertParent = parent;
+        insertCmp = cmp;
+        return null;
+    }
+
+    // Вставка нового красного узла в место, найденное последним findForUpdate, и перебалансировка
+    private Node<K, V> attach(K key, V value) {
+        return attach(key, value, insertParent, insertCmp);
+    }
+
+    // Вставка в место parent/insertCmp, найденное спуском; дерево с тех пор не должно было меняться
+    private Node<K, V> attach(K key, V value, Node<K, V> parent, int insertCmp) {
+        insertParent = null;
+        Node<K, V> newNode = newNode(key, value, true);
+        newNode.parent = parent;
+        modCount++;
+
+        if (parent == null) {
+            root = newNode;
+        } else if (insertCmp < 0) {
+            parent.left = newNode;
+        } else {
+            parent.right = newNode;
+        }
+
+        if (parent == null || (parent == maxNode && insertCmp > 0)) {
+            maxNode = newNode;
+        }
+        if (fingerSearch) {
+            finger = newNode;
+        }
+
+        // Новый ключ: увеличиваем размеры поддеревьев у всех предков
+        for (Node<K, V> step = parent; step != null; step = step.parent) {
+            step.size++;
+        }
+
+        fixAfterInsert(newNode);
+        return newNode;
+    }
+
+    // Восстанавливаем свойства после вставки красного узла: перекраска поднимает нарушение к деду,
+    // не больше двух поворотов вокруг родителя и деда завершают исправление
+    private void fixAfterInsert(Node<K, V> node) {
+        int recolored = 0; // Для счётчиков
+        while (isRed(node.parent)) {
+            Node<K, V> parent = node.parent;
+            Node<K, V> grandparent = parent.parent; // Существует: красный узел не может быть корнем
+            if (parent == grandparent.left) {
+                Node<K, V> uncle = grandparent.right;
+                if (isRed(uncle)) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    recolored += 3;
+                    node = grandparent;
+                } else {
+                    if (node == parent.right) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = node.parent;
+                    }
+                    parent.isRed = false;
+                    grandparent.isRed = true;
+                    recolored += 2;
+                    rotateRight(grandparent);
+                }
+            } else {
+                Node<K, V> uncle = grandparent.left;
+                if (isRed(uncle)) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    recolored += 3;
+                    node = grandparent;
+                } else {
+                    if (node == parent.left) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = node.parent;
+                    }
+                    parent.isRed = false;
+                    grandparent.isRed = true;
+                    recolored += 2;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        if (root.isRed) {
+            root.isRed = false; // Корень всегда должен быть черным
+            recolored++;
+        }
+        if (metrics != null) metrics.recordRecolorings(recolored);
+    }
+
+    // Удаление узла node. Узел с двумя потомками заменяется своим преемником целиком (узлом, а не
+    // ключом), поэтому выданные наружу Map.Entry остальных ключей остаются привязаны к своим ключам.
+    void deleteIterative(Node<K, V> node) {
+        modCount++;
+        if (node == maxNode) {
+            maxNode = Node.predecessor(node); // У максимума нет правого потомка: предшественник рядом
+        }
+        if (node == finger) {
+            finger = node.parent;
+        }
+        Node<K, V> child;       // Узел, который встаёт на место вынутого (может быть null)
+        Node<K, V> childParent; // Его будущий родитель — нужен, когда child == null
+        boolean removedRed;     // Цвет узла, который фактически исчез со своего места
+
+        if (node.left == null || node.right == null) {
+            child = node.left != null ? node.left : node.right;
+            childParent = node.parent;
+            removedRed = node.isRed;
+            decrementSizesFrom(node.parent);
+            replaceChild(node, child);
+        } else {
+            Node<K, V> successor = findMin(node.right);
+            child = successor.right;
+            removedRed = successor.isRed;
+            decrementSizesFrom(successor.parent);
+            if (successor.parent == node) {
+                childParent = successor;
+            } else {
+                childParent = successor.parent;
+                replaceChild(successor, child);
+                successor.right = node.right;
+                successor.right.parent = successor;
+            }
+            replaceChild(node, successor);
+            successor.left = node.left;
+            successor.left.parent = successor;
+            successor.isRed = node.isRed;
+            updateSize(successor);
+        }
+        // Отцепляем удалённый узел, чтобы устаревшие ссылки на него не держали дерево
+        node.left = node.right = node.parent = null;
+
+        if (!removedRed) {
+            fixAfterDelete(child, childParent);
+        }
+    }
+
+    // Уменьшаем размеры поддеревьев от node до корня
+    private void decrementSizesFrom(Node<K, V> node) {
+        for (; node != null; node = node.parent) {
+            node.size--;
+        }
+    }
+
+    // Исчез чёрный узел: на пути через node не хватает одного чёрного. Недостаток поднимается
+    // перекраской брата или снимается поворотами вокруг parent (не больше трёх поворотов).
+    // node может быть null, поэтому родитель передаётся отдельно.
+    private void fixAfterDelete(Node<K, V> node, Node<K, V> parent) {
+        int recolored = 0; // Для счётчиков
+        while (node != root && !isRed(node)) {
+            if (node == parent.left) {
+                Node<K, V> sibling = parent.right;
+                if (isRed(sibling)) {
+                    sibling.isRed = false;
+                    parent.isRed = true;
+                    recolored += 2;
+                    rotateLeft(parent);
+                    sibling = parent.right;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.isRed = true;
+                    recolored++;
+                    node = parent;
+                    parent = node.parent;
+                } else {
+                    if (!isRed(sibling.right)) {
+                        sibling.left.isRed = false;
+                        sibling.isRed = true;
+                        recolored += 2;
+                        rotateRight(sibling);
+                        sibling = parent.right;
+                    }
+                    recolored += parent.isRed ? 3 : 1; // Брат берёт цвет родителя, родитель и племянник чернеют
+                    sibling.isRed = parent.isRed;
+                    parent.isRed = false;
+                    sibling.right.isRed = false;
+                    rotateLeft(parent);
+                    node = root;
+                }
+            } else {
+                Node<K, V> sibling = parent.left;
+                if (isRed(sibling)) {
+                    sibling.isRed = false;
+                    parent.isRed = true;
+                    recolored += 2;
+                    rotateRight(parent);
+                    sibling = parent.left;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.isRed = true;
+                    recolored++;
+                    node = parent;
+                    parent = node.parent;
+                } else {
+                    if (!isRed(sibling.left)) {
+                        sibling.right.isRed = false;
+                        sibling.isRed = true;
+                        recolored += 2;
+                        rotateLeft(sibling);
+                        sibling = parent.left;
+                    }
+                    recolored += parent.isRed ? 3 : 1; // Брат берёт цвет родителя, родитель и племянник чернеют
+                    sibling.isRed = parent.isRed;
+                    parent.isRed = false;
+                    sibling.left.isRed = false;
+                    rotateRight(parent);
+                    node = root;
+                }
+            }
+        }
+        if (node != null && node.isRed) {
+            node.isRed = false;
+            recolored++;
+        }
+        if (metrics != null) metrics.recordRecolorings(recolored);
+    }
+
+    // Реализация методов для красно-черного дерева
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return search((K) key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        long start = startTime();
+        Node<K, V> node = findNode((K) key);
+        record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+        return node != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (V v : values()) {
+            if (Objects.equals(v, value)) return true;
+        }
+        return false;
+    }
+
+    // Включение данных с заданным ключом; возвращает прежнее значение или null
+    @Override
+    public V put(K key, V value) {
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        if (node == null) {
+            attach(key, value);
+            record(RBTreeMetrics.Operation.INSERT, false, start);
+            return null;
+        }
+        V old = node.value;
+        node.value = value;
+        record(RBTreeMetrics.Operation.UPDATE, true, start);
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        map.forEach(this::put);
+    }
+
+    // Удаление данных с заданным ключом; возвращает удалённое значение или null
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        long start = startTime();
+        Node<K, V> node = findNode((K) key);
+        if (node == null) {
+            record(RBTreeMetrics.Operation.DELETE, false, start);
+            return null;
+        }
+        V old = node.value;
+        deleteIterative(node);
+        record(RBTreeMetrics.Operation.DELETE, true, start);
+        return old;
+    }
+
+    // Остальные операции Map со значением по ключу тоже делают один спуск: реализации по умолчанию
+    // из Map вызывают get, а затем put или remove, то есть спускаются дважды.
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        long start = startTime();
+        Node<K, V> node = findNode((K) key);
+        record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+        return node != null ? node.value : defaultValue;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        if (node == null) {
+            attach(key, value);
+            record(RBTreeMetrics.Operation.INSERT, false, start);
+            return null;
+        }
+        V old = node.value;
+        if (old == null) {
+            node.value = value;
+        }
+        record(RBTreeMetrics.Operation.UPDATE, old == null, start);
+        return old;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        long start = startTime();
+        Node<K, V> node = findNode((K) key);
+        boolean matches = node != null && Objects.equals(node.value, value);
+        if (matches) {
+            deleteIterative(node);
+        }
+        record(RBTreeMetrics.Operation.DELETE, matches, start);
+        return matches;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        long start = startTime();
+        Node<K, V> node = findNode(key);
+        boolean matches = node != null && Objects.equals(node.value, oldValue);
+        if (matches) {
+            node.value = newValue;
+        }
+        record(RBTreeMetrics.Operation.UPDATE, matches, start);
+        return matches;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        long start = startTime();
+        Node<K, V> node = findNode(key);
+        record(RBTreeMetrics.Operation.UPDATE, node != null, start);
+        if (node == null) return null;
+        V old = node.value;
+        node.value = value;
+        return old;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        if (node != null && node.value != null) {
+            record(RBTreeMetrics.Operation.SEARCH, true, start);
+            return node.value;
+        }
+        Node<K, V> parent = insertParent;
+        int cmp = insertCmp;
+        int expectedModCount = modCount;
+        V value = mappingFunction.apply(key);
+        checkUnmodified(expectedModCount);
+        if (value == null) {
+            record(RBTreeMetrics.Operation.SEARCH, node != null, start);
+            return null;
+        }
+        if (node != null) {
+            node.value = value;
+        } else {
+            attach(key, value, parent, cmp);
+        }
+        record(node != null ? RBTreeMetrics.Operation.UPDATE : RBTreeMetrics.Operation.INSERT, node != null, start);
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        long start = startTime();
+        Node<K, V> node = findNode(key);
+        if (node == null || node.value == null) {
+            record(RBTreeMetrics.Operation.UPDATE, false, start);
+            return null;
+        }
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, node.value);
+        checkUnmodified(expectedModCount);
+        return replaceOrDelete(node, value, start);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        Node<K, V> parent = insertParent;
+        int cmp = insertCmp;
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, node != null ? node.value : null);
+        checkUnmodified(expectedModCount);
+        if (node != null) return replaceOrDelete(node, value, start);
+        if (value != null) {
+            attach(key, value, parent, cmp);
+            record(RBTreeMetrics.Operation.INSERT, false, start);
+        } else {
+            record(RBTreeMetrics.Operation.UPDATE, false, start);
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        long start = startTime();
+        Node<K, V> node = findForUpdate(key);
+        if (node == null) {
+            attach(key, value);
+            record(RBTreeMetrics.Operation.INSERT, false, start);
+            return value;
+        }
+        if (node.value == null) {
+            node.value = value;
+            record(RBTreeMetrics.Operation.UPDATE, true, start);
+            return value;
+        }
+        int expectedModCount = modCount;
+        V merged = remappingFunction.apply(node.value, value);
+        checkUnmodified(expectedModCount);
+        return replaceOrDelete(node, merged, start);
+    }
+
+    // Новое значение найденного узла; null по контракту Map означает удаление
+    private V replaceOrDelete(Node<K, V> node, V value, long start) {
+        if (value == null) {
+            deleteIterative(node);
+            record(RBTreeMetrics.Operation.DELETE, true, start);
+        } else {
+            node.value = value;
+            record(RBTreeMetrics.Operation.UPDATE, true, start);
+        }
+        return value;
+    }
+
+    // Пользовательская функция вызывается между спуском и изменением: если она сама изменила дерево,
+    // найденные узел и место вставки устарели, поэтому, как TreeMap, бросаем исключение
+    private void checkUnmodified(int expectedModCount) {
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Количество элементов дерева за O(1)
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    // Количество ключей, строго меньших key
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    // Количество ключей, меньших key (inclusive — меньших или равных)
+    int countBelow(K key, boolean inclusive) {
+        int count = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = compare(key, current.key);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                current = current.left;
+            } else {
+                count += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return count;
+    }
+
+    // Ключ с порядковым номером index (0 — минимальный)
+    public K select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        return selectNode(index).key;
+    }
+
+    // Узел с порядковым номером index, 0 <= index < size()
+    Node<K, V> selectNode(int index) {
+        Node<K, V> current = root;
+        while (true) {
+            int leftSize = size(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+    }
+
+    // Количество ключей в диапазоне [lo, hi]
+    public int countRange(K lo, K hi) {
+        if (compare(lo, hi) > 0) return 0;
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    // Нижняя медиана ключей; null для пустого дерева
+    public K median() {
+        return isEmpty() ? null : select((size() - 1) / 2);
+    }
+
+    // Неизменяемая копия содержимого в раскладке для быстрого поиска (см. FrozenRBTree); O(n).
+    // Дерево не меняется и остаётся доступным, копия от его дальнейших изменений не зависит.
+    public FrozenRBTree<K, V> freeze() {
+        return new FrozenRBTree<>(this, comparator, keyPrefix);
+    }
+
+    // Разрезание и сшивка деревьев за O(log n) и операции над множествами ключей на их основе.
+    // Узлы не копируются, а переходят в результат, поэтому деревья-аргументы после вызова пусты.
+
+    // Отрезает ключи не меньше key в новое дерево; в этом остаются ключи меньше key. O(log n).
+    public RBTree<K, V> split(K key) {
+        RBTreeJoin<K, V> join = new RBTreeJoin<>(this, null);
+        RBTreeJoin.Split<K, V> parts = new RBTreeJoin.Split<>();
+        join.split(takeRoot(), key, parts);
+        RBTree<K, V> upper = emptyLike();
+        upper.setRoot(parts.middle != null ? join.join(null, parts.middle, parts.right) : parts.right);
+        setRoot(parts.left);
+        return upper;
+    }
+
+    // Сшивка left, пары key-value и right; все ключи left должны быть меньше key, все ключи right — больше.
+    // O(разности высот деревьев + 1).
+    public static <K, V> RBTree<K, V> join(RBTree<K, V> left, K key, V value, RBTree<K, V> right) {
+        left.checkSameOrder(right);
+        if (left.maxNode != null && left.compare(left.maxNode.key, key) >= 0) {
+            throw new IllegalArgumentException("Left tree has a key not less than " + key);
+        }
+        Node<K, V> rightMin = right.firstNode();
+        if (rightMin != null && right.compare(rightMin.key, key) <= 0) {
+            throw new IllegalArgumentException("Right tree has a key not greater than " + key);
+        }
+        RBTree<K, V> result = left.emptyLike();
+        Node<K, V> pivot = left.newNode(key, value, true);
+        result.setRoot(new RBTreeJoin<>(left, null).join(left.takeRoot(), pivot, right.takeRoot()));
+        return result;
+    }
+
+    // Сшивка двух деревьев, где все ключи left меньше всех ключей right. O(log n).
+    public static <K, V> RBTree<K, V> join(RBTree<K, V> left, RBTree<K, V> right) {
+        left.checkSameOrder(right);
+        Node<K, V> rightMin = right.firstNode();
+        if (left.maxNode != null && rightMin != null && left.compare(left.maxNode.key, rightMin.key) >= 0) {
+            throw new IllegalArgumentException("Trees overlap: " + left.maxNode.key + " >= " + rightMin.key);
+        }
+        RBTree<K, V> result = left.emptyLike();
+        result.setRoot(new RBTreeJoin<>(left, null).join(left.takeRoot(), right.takeRoot()));
+        return result;
+    }
+
+    // Переносит в это дерево все узлы other, ключи которого больше всех ключей этого дерева; other пустеет. O(log n)
+    void appendAll(RBTree<K, V> other) {
+        setRoot(join(this, other).takeRoot());
+    }
+
+    // Объединение; для ключа из обоих деревьев остаётся значение из b, как после a.putAll(b)
+    public static <K, V> RBTree<K, V> union(RBTree<K, V> a, RBTree<K, V> b) {
+        return union(a, b, (aValue, bValue) -> bValue);
+    }
+
+    // Объединение; значение ключа из обоих деревьев — combiner(значение из a, значение из b).
+    // Работа O(m log(n/m + 1)) для размеров m <= n, поддеревья обрабатываются параллельно.
+    public static <K, V> RBTree<K, V> union(RBTree<K, V> a, RBTree<K, V> b, BinaryOperator<V> combiner) {
+        Objects.requireNonNull(combiner);
+        return apply(RBTreeJoin.SetOperation.UNION, a, b, combiner);
+    }
+
+    // Ключи, которые есть в обоих деревьях, со значениями из a
+    public static <K, V> RBTree<K, V> intersection(RBTree<K, V> a, RBTree<K, V> b) {
+        return apply(RBTreeJoin.SetOperation.INTERSECTION, a, b, null);
+    }
+
+    // Ключи a, которых нет в b
+    public static <K, V> RBTree<K, V> difference(RBTree<K, V> a, RBTree<K, V> b) {
+        return apply(RBTreeJoin.SetOperation.DIFFERENCE, a, b, null);
+    }
+
+    private static <K, V> RBTree<K, V> apply(RBTreeJoin.SetOperation operation, RBTree<K, V> a, RBTree<K, V> b,
+                                             BinaryOperator<V> combiner) {
+        a.checkSameOrder(b);
+        RBTree<K, V> result = a.emptyLike();
+        result.setRoot(new RBTreeJoin<>(a, combiner).applyInPool(operation, a.takeRoot(), b.takeRoot()));
+        return result;
+    }
+
+    // Удаление ключей из диапазона [lo, hi) двумя разрезами и одной сшивкой, O(log n); возвращает число удалённых
+    public int removeRange(K lo, K hi) {
+        if (compare(lo, hi) >= 0) return 0;
+        int before = size();
+        RBTreeJoin<K, V> join = new RBTreeJoin<>(this, null);
+        RBTreeJoin.Split<K, V> parts = new RBTreeJoin.Split<>();
+        join.split(takeRoot(), lo, parts);
+        Node<K, V> below = parts.left;
+        join.split(parts.right, hi, parts);
+        Node<K, V> above = parts.middle != null ? join.join(null, parts.middle, parts.right) : parts.right;
+        setRoot(join.join(below, above));
+        return before - size();
+    }
+
+    // Пакет изменений. Ключи сортируются один раз, и пакет применяется по возрастанию ключей:
+    // небольшой относительно дерева пакет — по одному ключу, но каждый спуск начинается от общего
+    // предка с предыдущим ключом (как при setFingerSearch), а не от корня; пакет не меньше дерева —
+    // двумя операциями над множествами на разрезах и сшивках: разностью с удаляемыми ключами
+    // и объединением с записываемыми, O(m log(n/m + 1)) с параллельной обработкой поддеревьев.
+    // Порог подобран замером: до m ~ n спуски от пальца быстрее, чем сборка дерева из пакета.
+    // Из нескольких изменений одного ключа действует последнее. Ключи сравниваются при сортировке,
+    // поэтому ошибка сравнения случается до первого изменения дерева. Узлы оставшихся ключей
+    // не заменяются, выданные наружу Map.Entry остаются действительными
+    public void applyBatch(Collection<? extends Mutation<K, V>> batch) {
+        Mutation<K, V>[] sorted = sortBatch(batch);
+        applySortedBatch(sorted, 0, sorted.length);
+    }
+
+    // Изменения по возрастанию ключей, по одному на ключ. Дерево не меняется, поэтому обёртки
+    // вызывают сортировку до того, как взять блокировку на запись
+    Mutation<K, V>[] sortBatch(Collection<? extends Mutation<K, V>> batch) {
+        @SuppressWarnings("unchecked")
+        Mutation<K, V>[] sorted = (Mutation<K, V>[]) batch.toArray(new Mutation<?, ?>[0]);
+        // Сортировка устойчивая, поэтому среди изменений одного ключа последним идёт последнее в пакете
+        Arrays.sort(sorted, (a, b) -> compare(a.key(), b.key()));
+        int count = 0;
+        for (Mutation<K, V> mutation : sorted) {
+            if (count > 0 && compare(sorted[count - 1].key(), mutation.key()) == 0) {
+                sorted[count - 1] = mutation;
+            } else {
+                sorted[count++] = mutation;
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    // Применение изменений sorted[from..to) из sortBatch
+    void applySortedBatch(Mutation<K, V>[] sorted, int from, int to) {
+        if (from >= to) return;
+        if (to - from >= size()) {
+            applyBatchByJoin(sorted, from, to);
+        } else {
+            applyBatchByFinger(sorted, from, to);
+        }
+    }
+
+    private void applyBatchByFinger(Mutation<K, V>[] sorted, int from, int to) {
+        boolean wasFingerSearch = fingerSearch;
+        fingerSearch = true;
+        finger = null;
+        try {
+            for (int i = from; i < to; i++) {
+                Mutation<K, V> mutation = sorted[i];
+                if (mutation.isDelete()) {
+                    delete(mutation.key());
+                } else {
+                    put(mutation.key(), mutation.value());
+                }
+            }
+        } finally {
+            fingerSearch = wasFingerSearch;
+            if (!wasFingerSearch) finger = null;
+        }
+    }
+
+    // Записываемые ключи объединяются с деревом так, что у общих ключей остаётся узел дерева
+    // с новым значением. Счётчики операций в этом пути не ведутся: попадания не известны по ключам
+    private void applyBatchByJoin(Mutation<K, V>[] sorted, int from, int to) {
+        int deletes = 0;
+        for (int i = from; i < to; i++) {
+            if (sorted[i].isDelete()) deletes++;
+        }
+        int puts = to - from - deletes;
+        RBTreeJoin<K, V> join = new RBTreeJoin<>(this, (batchValue, treeValue) -> batchValue);
+        Node<K, V> nodes = takeRoot();
+        if (deletes > 0) {
+            nodes = join.applyInPool(RBTreeJoin.SetOperation.DIFFERENCE, nodes, buildBatch(sorted, from, deletes, true));
+        }
+        if (puts > 0) {
+            nodes = join.applyInPool(RBTreeJoin.SetOperation.UNION, buildBatch(sorted, from, puts, false), nodes);
+        }
+        setRoot(nodes);
+    }
+
+    // Дерево из size удалений (deletes) или записей пакета, начиная с sorted[from]
+    private Node<K, V> buildBatch(Mutation<K, V>[] sorted, int from, int size, boolean deletes) {
+        return buildFromSorted(0, 0, size - 1, redLevel(size), new SortedInput<K, V>() {
+            private int next = from;
+
+            @Override
+            void load() {
+                while (sorted[next].isDelete() != deletes) next++;
+                Mutation<K, V> mutation = sorted[next++];
+                key = mutation.key();
+                value = mutation.value();
+            }
+        });
+    }
+
+    // Забирает все узлы, оставляя дерево пустым
+    private Node<K, V> takeRoot() {
+        Node<K, V> node = root;
+        clear();
+        return node;
+    }
+
+    // Устанавливает поддерево, собранное из узлов другого дерева, как всё дерево
+    private void setRoot(Node<K, V> node) {
+        if (node != null) {
+            node.parent = null;
+            node.isRed = false;
+        }
+        root = node;
+        maxNode = lastNode(node);
+        finger = null;
+        modCount++;
+    }
+
+    private RBTree<K, V> emptyLike() {
+        RBTree<K, V> tree = new RBTree<>(comparator, keyPrefix);
+        tree.fingerSearch = fingerSearch;
+        return tree;
+    }
+
+    // Узлы можно переносить только между деревьями с одинаковым порядком и видом узлов
+    private void checkSameOrder(RBTree<K, V> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Both arguments are the same tree");
+        }
+        if (!Objects.equals(comparator, other.comparator) || keyPrefix != other.keyPrefix) {
+            throw new IllegalArgumentException("Trees order their keys differently");
+        }
+    }
+
+    // Обход всех пар ключ-значение в порядке возрастания ключей (по ссылкам на родителя, без стека)
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> node = firstNode(); node != null; node = Node.successor(node)) {
+            action.accept(node.key, node.value);
+        }
+    }
+
+    // Обход формы дерева в прямом порядке (узел, левое поддерево, правое) для визуализации и отладки.
+    // Номер узла по возрастанию берётся из размеров поддеревьев, а обход идёт по ссылкам на родителя,
+    // без рекурсии и стека. Дерево во время обхода менять нельзя.
+    public void visitStructure(TreeStructureVisitor<? super K, ? super V> visitor) {
+        Node<K, V> node = root;
+        int depth = 0;
+        int low = 0;         // Номер минимального ключа поддерева node
+        int parentRank = -1;
+        while (node != null) {
+            int rank = low + size(node.left);
+            visitor.visit(node.key, node.value, node.isRed, depth, rank, parentRank);
+            if (node.left != null) {
+                node = node.left;
+                parentRank = rank;
+                depth++;
+                continue;
+            }
+            if (node.right != null) {
+                node = node.right;
+                low = rank + 1;
+                parentRank = rank;
+                depth++;
+                continue;
+            }
+            // Лист: поднимаемся, пока не найдём предка, у которого мы в левом поддереве, а правое не пусто
+            Node<K, V> next = null;
+            while (node.parent != null) {
+                Node<K, V> parent = node.parent;
+                depth--;
+                if (node == parent.left) {
+                    int upRank = low + node.size;
+                    if (parent.right != null) {
+                        next = parent.right;
+                        low = upRank + 1;
+                        parentRank = upRank;
+                        depth++;
+                        break;
+                    }
+                } else {
+                    low -= size(parent.left) + 1;
+                }
+                node = parent;
+            }
+            node = next;
+        }
+    }
+
+    // Обход ключей из диапазона по возрастанию: спуск к нижней границе за O(log n), затем O(k).
+    // Граница null означает отсутствие ограничения с этой стороны.
+    void forEachInRange(K lo, boolean loInclusive, K hi, boolean hiInclusive, BiConsumer<? super K, ? super V> action) {
+        Node<K, V> node = lo == null ? firstNode() : ceilingNode(lo, loInclusive);
+        for (; node != null; node = Node.successor(node)) {
+            if (hi != null) {
+                int cmp = compare(node.key, hi);
+                if (cmp > 0 || (cmp == 0 && !hiInclusive)) return;
+            }
+            action.accept(node.key, node.value);
+        }
+    }
+
+    // Поток ключей по возрастанию; параллельный поток делит дерево по размерам поддеревьев
+    public Stream<K> keyStream() {
+        return StreamSupport.stream(new RBTreeSpliterator<>(this, 0, size(), node -> node.key, comparator), false);
+    }
+
+    // Поток записей по возрастанию ключей
+    public Stream<Map.Entry<K, V>> entryStream() {
+        return StreamSupport.stream(new RBTreeSpliterator<K, V, Map.Entry<K, V>>(this, 0, size(), node -> node,
+                (a, b) -> compare(a.getKey(), b.getKey())), false);
+    }
+
+    // Итератор записей в заданном порядке обхода (прямом, симметричном, обратном или по уровням)
+    public RBTreeTraversal<K, V> traversal(TraversalOrder order) {
+        return new RBTreeTraversal<>(this, order);
+    }
+
+    // Записи в порядке обхода в виде "ключ:значение", каждая с separator после неё. Текст собирается
+    // порциями по TRAVERSAL_CHUNK символов, так что Writer получает редкие крупные записи, а не вызов
+    // на каждый узел. Обход итеративный: глубина дерева и его размер не ограничены стеком.
+    // Возвращает число записанных записей
+    public long writeTraversal(TraversalOrder order, Appendable out, String separator) throws IOException {
+        StringBuilder chunk = new StringBuilder(TRAVERSAL_CHUNK + 256);
+        long written = 0;
+        for (RBTreeTraversal<K, V> it = traversal(order); it.hasNext(); ) {
+            Map.Entry<K, V> entry = it.next();
+            chunk.append(entry.getKey()).append(':').append(entry.getValue()).append(separator);
+            written++;
+            if (chunk.length() >= TRAVERSAL_CHUNK) {
+                out.append(chunk);
+                chunk.setLength(0);
+            }
+        }
+        if (chunk.length() > 0) out.append(chunk);
+        return written;
+    }
+
+    // Запись на строку
+    public long writeTraversal(TraversalOrder order, Appendable out) throws IOException {
+        return writeTraversal(order, out, System.lineSeparator());
+    }
+
+    // Итератор по ключам в порядке возрастания
+    public RBTreeIterator<K, V> iterator() {
+        return new RBTreeIterator<>(this);
+    }
+
+    // Итератор по ключам в порядке убывания
+    public RBTreeReverseIterator<K, V> reverseIterator() {
+        return new RBTreeReverseIterator<>(this);
+    }
+
+    // Минимальный узел дерева или null
+    Node<K, V> firstNode() {
+        return root != null ? findMin(root) : null;
+    }
+
+    // Максимальный узел дерева или null
+    Node<K, V> lastNode() {
+        return maxNode;
+    }
+
+    private static <K, V> Node<K, V> lastNode(Node<K, V> node) {
+        if (node == null) return null;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    // Наименьший узел с ключом больше key (inclusive — больше или равным)
+    Node<K, V> ceilingNode(K key, boolean inclusive) {
+        Node<K, V> best = null;
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = compare(current.key, key);
+            if (cmp > 0 || (cmp == 0 && inclusive)) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    // Наибольший узел с ключом меньше key (inclusive — меньше или равным)
+    Node<K, V> floorNode(K key, boolean inclusive) {
+        Node<K, V> best = null;
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = compare(current.key, key);
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+                best = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best;
+    }
+
+    // Навигация и представления NavigableMap: всё дерево — это диапазон без границ
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator; // null — естественный порядок ключей
+    }
+
+    @Override
+    public K firstKey() {
+        return fullRange.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return fullRange.lastKey();
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return fullRange.firstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return fullRange.lastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return fullRange.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return fullRange.pollLastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return fullRange.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return fullRange.lowerKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return fullRange.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return fullRange.floorKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return fullRange.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return fullRange.ceilingKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return fullRange.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return fullRange.higherKey(key);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return fullRange.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return fullRange.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return fullRange.descendingKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return fullRange.values();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return fullRange.entrySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return fullRange.descendingMap();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return fullRange.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return fullRange.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return fullRange.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return fullRange.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return fullRange.headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return fullRange.tailMap(fromKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || fullRange.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return fullRange.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fullRange.toString();
+    }
+}
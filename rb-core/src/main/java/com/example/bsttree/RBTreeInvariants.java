@@ -0,0 +1,124 @@
+package com.example.bsttree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Проверка свойств красно-черного дерева: порядок ключей, ссылки на родителя, размеры поддеревьев, кэш максимума,
+// отсутствие двух красных подряд и одинаковая чёрная высота. Обход без рекурсии, поэтому
+// проверка не падает со StackOverflowError даже на выродившемся в список дереве.
+public final class RBTreeInvariants {
+
+    private RBTreeInvariants() {
+    }
+
+    // Узел на стеке обхода вместе с границами ключей и числом чёрных узлов от корня до него
+    private static final class Frame<K, V> {
+        final Node<K, V> node;
+        final Node<K, V> lower;
+        final Node<K, V> upper;
+        final int blackDepth;
+
+        Frame(Node<K, V> node, Node<K, V> lower, Node<K, V> upper, int blackDepth) {
+            this.node = node;
+            this.lower = lower;
+            this.upper = upper;
+            this.blackDepth = blackDepth;
+        }
+    }
+
+    // Бросает IllegalStateException с описанием первого найденного нарушения
+    public static <K, V> void check(RBTree<K, V> tree) {
+        Node<K, V> root = tree.rootNode();
+        if (root == null) {
+            if (tree.lastNode() != null) throw new IllegalStateException("Empty tree has a cached maximum");
+            return;
+        }
+        if (root.isRed) fail("root is red", root);
+        if (root.parent != null) fail("root has a parent", root);
+        Node<K, V> rightmost = root;
+        while (rightmost.right != null) rightmost = rightmost.right;
+        if (tree.lastNode() != rightmost) fail("cached maximum is not the rightmost node", rightmost);
+
+        int blackHeight = -1; // Чёрная высота первого встреченного листа, с ней сравниваются остальные
+        Deque<Frame<K, V>> stack = new ArrayDeque<>();
+        stack.push(new Frame<>(root, null, null, 1));
+        while (!stack.isEmpty()) {
+            Frame<K, V> frame = stack.pop();
+            Node<K, V> node = frame.node;
+
+            if (frame.lower != null && tree.compare(frame.lower.key, node.key) >= 0) {
+                fail("key is not greater than ancestor " + frame.lower.key, node);
+            }
+            if (frame.upper != null && tree.compare(frame.upper.key, node.key) <= 0) {
+                fail("key is not less than ancestor " + frame.upper.key, node);
+            }
+            if (node.isRed && (isRed(node.left) || isRed(node.right))) {
+                fail("red node has a red child", node);
+            }
+            int expectedSize = 1 + size(node.left) + size(node.right);
+            if (node.size != expectedSize) {
+                fail("size " + node.size + " != " + expectedSize, node);
+            }
+
+            for (Node<K, V> child : childrenOf(node)) {
+                if (child == null) {
+                    // Пустая ссылка — лист: все пути от корня до листьев содержат поровну чёрных узлов
+                    if (blackHeight < 0) {
+                        blackHeight = frame.blackDepth;
+                    } else if (blackHeight != frame.blackDepth) {
+                        fail("black height " + frame.blackDepth + " != " + blackHeight, node);
+                    }
+                    continue;
+                }
+                if (child.parent != node) fail("child " + child.key + " does not point back to its parent", node);
+                int blackDepth = frame.blackDepth + (child.isRed ? 0 : 1);
+                if (child == node.left) {
+                    stack.push(new Frame<>(child, frame.lower, node, blackDepth));
+                } else {
+                    stack.push(new Frame<>(child, node, frame.upper, blackDepth));
+                }
+            }
+        }
+    }
+
+    // Высота дерева в узлах (0 для пустого); у красно-черного дерева не больше 2·log2(n + 1)
+    public static <K, V> int height(RBTree<K, V> tree) {
+        Node<K, V> root = tree.rootNode();
+        if (root == null) return 0;
+        // Обход по уровням: высота — число уровней
+        int height = 0;
+        Deque<Node<K, V>> level = new ArrayDeque<>();
+        level.add(root);
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node<K, V> node = level.poll();
+                if (node.left != null) level.add(node.left);
+                if (node.right != null) level.add(node.right);
+            }
+        }
+        return height;
+    }
+
+    // Верхняя граница высоты красно-черного дерева из n ключей
+    public static int maxHeight(int size) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(size));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] childrenOf(Node<K, V> node) {
+        return (Node<K, V>[]) new Node<?, ?>[]{node.left, node.right};
+    }
+
+    private static boolean isRed(Node<?, ?> node) {
+        return node != null && node.isRed;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void fail(String message, Node<?, ?> node) {
+        throw new IllegalStateException("Red-black invariant violated at key " + node.key + ": " + message);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.bsttree;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+// Операции над поддеревьями через join: join и split за O(log n), на них — объединение, пересечение
+// и разность с работой O(m log(n/m + 1)) для деревьев размеров m <= n. Узлы входных поддеревьев
+// переиспользуются и перестраиваются на месте. Корень результата может быть красным.
+// Рекурсия над непересекающимися поддеревьями выполняется параллельно в пуле ForkJoin.
+final class RBTreeJoin<K, V> {
+    // Меньше этого числа узлов в обоих поддеревьях задача выполняется без ветвления
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    enum SetOperation { UNION, INTERSECTION, DIFFERENCE }
+
+    private final RBTree<K, V> order; // Источник порядка ключей
+    private final BinaryOperator<V> combiner; // Значение ключа, общего для обоих деревьев, при объединении
+
+    RBTreeJoin(RBTree<K, V> order, BinaryOperator<V> combiner) {
+        this.order = order;
+        this.combiner = combiner;
+    }
+
+    // Результат split: ключи меньше, узел с самим ключом (или null) и ключи больше, с чёрными высотами частей
+    static final class Split<K, V> {
+        Node<K, V> left;
+        int leftHeight;
+        Node<K, V> middle;
+        Node<K, V> right;
+        int rightHeight;
+    }
+
+    // Дерево из left, узла pivot и right; все ключи left меньше ключа pivot, все ключи right — больше
+    Node<K, V> join(Node<K, V> left, Node<K, V> pivot, Node<K, V> right) {
+        return join(left, blackHeight(left), pivot, right, blackHeight(right));
+    }
+
+    // То же при известных чёрных высотах частей; стоимость — O(разности высот + 1).
+    // Внутри split высоты считаются по ходу спуска: подсчёт заново по левому краю на каждом
+    // уровне сделал бы split квадратичным по высоте.
+    private Node<K, V> join(Node<K, V> left, int leftHeight, Node<K, V> pivot, Node<K, V> right, int rightHeight) {
+        // Красные корни перекрашиваем: поддерево остаётся красно-черным, а сшивке достаточно
+        // рассматривать только деревья с чёрным корнем
+        if (isRed(left)) {
+            left.isRed = false;
+            leftHeight++;
+        }
+        if (isRed(right)) {
+            right.isRed = false;
+            rightHeight++;
+        }
+        Node<K, V> result;
+        if (leftHeight > rightHeight) {
+            result = joinRight(left, leftHeight, pivot, right, rightHeight);
+            if (result.isRed && isRed(result.right)) result.isRed = false;
+        } else if (rightHeight > leftHeight) {
+            result = joinLeft(left, leftHeight, pivot, right, rightHeight);
+            if (result.isRed && isRed(result.left)) result.isRed = false;
+        } else {
+            result = link(left, pivot, right, true);
+        }
+        result.parent = null;
+        return result;
+    }
+
+    // Спуск по правому краю node до чёрного поддерева высоты height, на его место встаёт pivot;
+    // красное нарушение, поднявшееся на два уровня, снимается левым поворотом у чёрного предка
+    private Node<K, V> joinRight(Node<K, V> node, int nodeHeight, Node<K, V> pivot, Node<K, V> right, int height) {
+        if (!isRed(node) && nodeHeight == height) {
+            return link(node, pivot, right, true);
+        }
+        int childHeight = node.isRed ? nodeHeight : nodeHeight - 1;
+        Node<K, V> child = joinRight(node.right, childHeight, pivot, right, height);
+        node.right = child;
+        child.parent = node;
+        if (!node.isRed && child.isRed && isRed(child.right)) {
+            child.right.isRed = false;
+            return rotateLeft(node);
+        }
+        updateSize(node);
+        return node;
+    }
+
+    private Node<K, V> joinLeft(Node<K, V> left, int height, Node<K, V> pivot, Node<K, V> node, int nodeHeight) {
+        if (!isRed(node) && nodeHeight == height) {
+            return link(left, pivot, node, true);
+        }
+        int childHeight = node.isRed ? nodeHeight : nodeHeight - 1;
+        Node<K, V> child = joinLeft(left, height, pivot, node.left, childHeight);
+        node.left = child;
+        child.parent = node;
+        if (!node.isRed && child.isRed && isRed(child.left)) {
+            child.left.isRed = false;
+            return rotateRight(node);
+        }
+        updateSize(node);
+        return node;
+    }
+
+    // Чёрная высота результата join: большая из высот частей после перекраски красных корней
+    private static int joinedHeight(Node<?, ?> left, int leftHeight, Node<?, ?> right, int rightHeight) {
+        return Math.max(leftHeight + (isRed(left) ? 1 : 0), rightHeight + (isRed(right) ? 1 : 0));
+    }
+
+    // Сшивка без среднего ключа: максимум левого дерева становится опорным узлом
+    Node<K, V> join(Node<K, V> left, Node<K, V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        Split<K, V> parts = new Split<>();
+        splitLast(left, blackHeight(left), parts);
+        return join(parts.left, parts.leftHeight, parts.middle, right, blackHeight(right));
+    }
+
+    // Отделяет максимальный узел: parts.left — остальные узлы, parts.middle — максимум
+    private void splitLast(Node<K, V> node, int height, Split<K, V> parts) {
+        Node<K, V> left = node.left;
+        Node<K, V> right = node.right;
+        int childHeight = node.isRed ? height : height - 1;
+        detach(node);
+        if (right == null) {
+            parts.left = left;
+            parts.leftHeight = childHeight;
+            parts.middle = node;
+            return;
+        }
+        splitLast(right, childHeight, parts);
+        int joined = joinedHeight(left, childHeight, parts.left, parts.leftHeight);
+        parts.left = join(left, childHeight, node, parts.left, parts.leftHeight);
+        parts.leftHeight = joined;
+    }
+
+    // Разрезает поддерево по key за O(log n); узлы на пути к key становятся опорными для join
+    void split(Node<K, V> node, K key, Split<K, V> parts) {
+        split(node, blackHeight(node), key, parts);
+    }
+
+    private void split(Node<K, V> node, int height, K key, Split<K, V> parts) {
+        if (node == null) {
+            parts.left = parts.middle = parts.right = null;
+            parts.leftHeight = parts.rightHeight = 0;
+            return;
+        }
+        Node<K, V> left = node.left;
+        Node<K, V> right = node.right;
+        int childHeight = node.isRed ? height : height - 1;
+        detach(node);
+        int cmp = order.compare(key, node.key);
+        if (cmp == 0) {
+            parts.left = left;
+            parts.leftHeight = childHeight;
+            parts.middle = node;
+            parts.right = right;
+            parts.rightHeight = childHeight;
+        } else if (cmp < 0) {
+            split(left, childHeight, key, parts);
+            int joined = joinedHeight(parts.right, parts.rightHeight, right, childHeight);
+            parts.right = join(parts.right, parts.rightHeight, node, right, childHeight);
+            parts.rightHeight = joined;
+        } else {
+            split(right, childHeight, key, parts);
+            int joined = joinedHeight(left, childHeight, parts.left, parts.leftHeight);
+            parts.left = join(left, childHeight, node, parts.left, parts.leftHeight);
+            parts.leftHeight = joined;
+        }
+    }
+
+    // Теоретико-множественная операция над поддеревьями a и b: корень b делит a пополам через split,
+    // половины обрабатываются независимо (параллельно, если они достаточно велики) и сшиваются join.
+    // При объединении и пересечении значение общего ключа — combiner(значение a, значение b)
+    // и значение из a соответственно.
+    Node<K, V> apply(SetOperation operation, Node<K, V> a, Node<K, V> b) {
+        if (a == null) return operation == SetOperation.UNION ? b : null;
+        if (b == null) return operation == SetOperation.INTERSECTION ? null : a;
+        boolean parallel = a.size + b.size >= PARALLEL_THRESHOLD;
+
+        Node<K, V> bLeft = b.left;
+        Node<K, V> bRight = b.right;
+        detach(b);
+        Split<K, V> parts = new Split<>();
+        split(a, b.key, parts);
+        Node<K, V> match = parts.middle;
+
+        Node<K, V> left;
+        Node<K, V> right;
+        if (parallel) {
+            ForkJoinTask<Node<K, V>> leftTask = new SetOperationTask(operation, parts.left, bLeft).fork();
+            right = apply(operation, parts.right, bRight);
+            left = leftTask.join();
+        } else {
+            left = apply(operation, parts.left, bLeft);
+            right = apply(operation, parts.right, bRight);
+        }
+
+        switch (operation) {
+            case UNION:
+                if (match != null) b.value = combiner.apply(match.value, b.value);
+                return join(left, b, right);
+            case INTERSECTION:
+                return match != null ? join(left, match, right) : join(left, right);
+            default:
+                return join(left, right);
+        }
+    }
+
+    // Корень — запуск в общем пуле ForkJoin; внутри пула — ветвление текущей задачи
+    Node<K, V> applyInPool(SetOperation operation, Node<K, V> a, Node<K, V> b) {
+        return new SetOperationTask(operation, a, b).invoke();
+    }
+
+    // ForkJoinTask сериализуем, но задачи живут только внутри пула: узлы не сериализуются
+    private final class SetOperationTask extends RecursiveTask<Node<K, V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final SetOperation operation;
+        private final transient Node<K, V> a;
+        private final transient Node<K, V> b;
+
+        SetOperationTask(SetOperation operation, Node<K, V> a, Node<K, V> b) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node<K, V> compute() {
+            return apply(operation, a, b);
+        }
+    }
+
+    // Узел pivot с потомками left и right
+    private Node<K, V> link(Node<K, V> left, Node<K, V> pivot, Node<K, V> right, boolean red) {
+        pivot.left = left;
+        pivot.right = right;
+        if (left != null) left.parent = pivot;
+        if (right != null) right.parent = pivot;
+        pivot.isRed = red;
+        updateSize(pivot);
+        return pivot;
+    }
+
+    // Отцепляет узел от потомков; потомки становятся самостоятельными поддеревьями
+    private static <K, V> void detach(Node<K, V> node) {
+        if (node.left != null) node.left.parent = null;
+        if (node.right != null) node.right.parent = null;
+        node.left = null;
+        node.right = null;
+        node.parent = null;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> x = node.right;
+        node.right = x.left;
+        if (x.left != null) x.left.parent = node;
+        x.left = node;
+        node.parent = x;
+        x.parent = null;
+        updateSize(node);
+        updateSize(x);
+        return x;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> x = node.left;
+        node.left = x.right;
+        if (x.right != null) x.right.parent = node;
+        x.right = node;
+        node.parent = x;
+        x.parent = null;
+        updateSize(node);
+        updateSize(x);
+        return x;
+    }
+
+    // Число чёрных узлов на пути от корня до листа (одинаково на всех путях)
+    private static int blackHeight(Node<?, ?> node) {
+        int height = 0;
+        for (; node != null; node = node.left) {
+            if (!node.isRed) height++;
+        }
+        return height;
+    }
+
+    private static boolean isRed(Node<?, ?> node) {
+        return node != null && node.isRed;
+    }
+
+    private static void updateSize(Node<?, ?> node) {
+        node.size = 1 + (node.left != null ? node.left.size : 0) + (node.right != null ? node.right.size : 0);
+    }
+}
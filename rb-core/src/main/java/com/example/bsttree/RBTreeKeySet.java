@@ -0,0 +1,159 @@
+package com.example.bsttree;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+// Множество ключей диапазона RBTreeSubMap или FrozenRBTreeSubMap; все операции идут в представление,
+// копий не создаётся
+class RBTreeKeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+    private final NavigableMap<K, ?> map;
+
+    RBTreeKeySet(NavigableMap<K, ?> map) {
+        this.map = map;
+    }
+
+    // Ключи записей представления; у RBTreeSubMap записи — сами узлы, лишних объектов нет
+    private static <K> Iterator<K> keys(NavigableMap<K, ?> map) {
+        Iterator<? extends Map.Entry<K, ?>> entries = map.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return entries.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+                entries.remove();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keys(map);
+    }
+
+    @Override
+    public Iterator<K> descendingIterator() {
+        return keys(map.descendingMap());
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!map.containsKey(o)) return false;
+        map.remove(o);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return map.comparator();
+    }
+
+    @Override
+    public K first() {
+        return map.firstKey();
+    }
+
+    @Override
+    public K last() {
+        return map.lastKey();
+    }
+
+    @Override
+    public K lower(K key) {
+        return map.lowerKey(key);
+    }
+
+    @Override
+    public K floor(K key) {
+        return map.floorKey(key);
+    }
+
+    @Override
+    public K ceiling(K key) {
+        return map.ceilingKey(key);
+    }
+
+    @Override
+    public K higher(K key) {
+        return map.higherKey(key);
+    }
+
+    @Override
+    public K pollFirst() {
+        Map.Entry<K, ?> entry = map.pollFirstEntry();
+        return entry != null ? entry.getKey() : null;
+    }
+
+    @Override
+    public K pollLast() {
+        Map.Entry<K, ?> entry = map.pollLastEntry();
+        return entry != null ? entry.getKey() : null;
+    }
+
+    @Override
+    public NavigableSet<K> descendingSet() {
+        return new RBTreeKeySet<>(map.descendingMap());
+    }
+
+    @Override
+    public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+        return new RBTreeKeySet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+        return new RBTreeKeySet<>(map.headMap(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+        return new RBTreeKeySet<>(map.tailMap(fromElement, inclusive));
+    }
+
+    @Override
+    public SortedSet<K> subSet(K fromElement, K toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> headSet(K toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> tailSet(K fromElement) {
+        return tailSet(fromElement, true);
+    }
+}
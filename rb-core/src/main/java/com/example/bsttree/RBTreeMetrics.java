@@ -0,0 +1,268 @@
+package com.example.bsttree;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счётчики работы дерева. Подключаются через RBTree.setMetrics; одно и то же RBTreeMetrics можно
+// подключить к нескольким деревьям (например, к шардам), тогда счётчики общие. Без подключённых
+// метрик дерево ничего не считает. Все счётчики — LongAdder: потоки, читающие дерево параллельно
+// (ConcurrentRBTree), увеличивают разные ячейки и не мешают друг другу.
+//
+// Что считается:
+//   операции по видам (Operation) и для каждой — нашёлся ли ключ (hit) или нет (miss);
+//   повороты и перекраски узлов при балансировке после вставки и удаления;
+//   сравнения ключей — вызовы компаратора или compareTo; сравнения, решённые префиксом ключа
+//   (RBTree.forStringKeys), не считаются;
+//   длина пути — число узлов, пройденных спуском от корня (или от пальца) до ключа или места вставки.
+// Гистограммы задержек операций по умолчанию выключены: без них операция не вызывает System.nanoTime.
+public class RBTreeMetrics {
+
+    public enum Operation {
+        SEARCH, // Поиск по ключу: search, get, containsKey, getOrDefault
+        INSERT, // Изменение, добавившее новый ключ
+        UPDATE, // Изменение значения существующего ключа; miss — ключа не было и ничего не изменилось
+        DELETE  // Удаление по ключу; miss — ключа не было
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LongAdder[] hits = newAdders(OPERATIONS.length);
+    private final LongAdder[] misses = newAdders(OPERATIONS.length);
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder recolorings = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder descents = new LongAdder();
+    private final LongAdder pathLength = new LongAdder();
+    private final LongAccumulator maxPathLength = new LongAccumulator(Math::max, 0);
+    private volatile LatencyHistogram[] latencies; // null — задержки не записываются
+
+    public RBTreeMetrics() {
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    // Включение записи задержек операций; уже накопленные гистограммы сохраняются
+    public void setLatencyTracking(boolean enabled) {
+        if (!enabled) {
+            latencies = null;
+        } else if (latencies == null) {
+            LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+            for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+            latencies = histograms;
+        }
+    }
+
+    public boolean isLatencyTracking() {
+        return latencies != null;
+    }
+
+    // Время начала операции для record; 0, если задержки не записываются
+    long startTime() {
+        return latencies != null ? System.nanoTime() : 0;
+    }
+
+    void record(Operation operation, boolean hit, long startTime) {
+        (hit ? hits : misses)[operation.ordinal()].increment();
+        LatencyHistogram[] histograms = latencies;
+        if (histograms != null && startTime != 0) {
+            histograms[operation.ordinal()].record(System.nanoTime() - startTime);
+        }
+    }
+
+    void recordDescent(int length) {
+        descents.increment();
+        pathLength.add(length);
+        maxPathLength.accumulate(length);
+    }
+
+    void recordRotation() {
+        rotations.increment();
+    }
+
+    void recordRecolorings(int nodes) {
+        recolorings.add(nodes);
+    }
+
+    void recordComparison() {
+        comparisons.increment();
+    }
+
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            hits[i].reset();
+            misses[i].reset();
+        }
+        rotations.reset();
+        recolorings.reset();
+        comparisons.reset();
+        descents.reset();
+        pathLength.reset();
+        maxPathLength.reset();
+        LatencyHistogram[] histograms = latencies;
+        if (histograms != null) {
+            for (LatencyHistogram histogram : histograms) histogram.reset();
+        }
+    }
+
+    // Значения всех счётчиков на момент вызова. Счётчики читаются по одному без остановки записей,
+    // поэтому между собой они согласованы лишь приблизительно
+    public Snapshot snapshot() {
+        Map<Operation, long[]> operations = new EnumMap<>(Operation.class);
+        Map<Operation, LatencyHistogram.Snapshot> latency = new EnumMap<>(Operation.class);
+        LatencyHistogram[] histograms = latencies;
+        for (Operation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            operations.put(operation, new long[]{hits[i].sum(), misses[i].sum()});
+            if (histograms != null) latency.put(operation, histograms[i].snapshot());
+        }
+        return new Snapshot(operations, latency, rotations.sum(), recolorings.sum(), comparisons.sum(),
+                descents.sum(), pathLength.sum(), maxPathLength.get());
+    }
+
+    public static final class Snapshot {
+        private final Map<Operation, long[]> operations; // {hits, misses}
+        private final Map<Operation, LatencyHistogram.Snapshot> latency;
+        private final long rotations;
+        private final long recolorings;
+        private final long comparisons;
+        private final long descents;
+        private final long pathLength;
+        private final long maxPathLength;
+
+        private Snapshot(Map<Operation, long[]> operations, Map<Operation, LatencyHistogram.Snapshot> latency,
+                         long rotations, long recolorings, long comparisons, long descents, long pathLength,
+                         long maxPathLength) {
+            this.operations = operations;
+            this.latency = latency;
+            this.rotations = rotations;
+            this.recolorings = recolorings;
+            this.comparisons = comparisons;
+            this.descents = descents;
+            this.pathLength = pathLength;
+            this.maxPathLength = maxPathLength;
+        }
+
+        public long count(Operation operation) {
+            return hits(operation) + misses(operation);
+        }
+
+        public long hits(Operation operation) {
+            return operations.get(operation)[0];
+        }
+
+        public long misses(Operation operation) {
+            return operations.get(operation)[1];
+        }
+
+        public long rotations() {
+            return rotations;
+        }
+
+        public long recolorings() {
+            return recolorings;
+        }
+
+        public long comparisons() {
+            return comparisons;
+        }
+
+        public long descents() {
+            return descents;
+        }
+
+        public long totalPathLength() {
+            return pathLength;
+        }
+
+        public long maxPathLength() {
+            return maxPathLength;
+        }
+
+        public double averagePathLength() {
+            return descents > 0 ? (double) pathLength / descents : 0;
+        }
+
+        // Гистограмма задержек операции или null, если задержки не записывались
+        public LatencyHistogram.Snapshot latency(Operation operation) {
+            return latency.get(operation);
+        }
+
+        // Плоский набор "имя — значение" для систем мониторинга, в постоянном порядке
+        public Map<String, Number> toMap() {
+            Map<String, Number> values = new LinkedHashMap<>();
+            for (Operation operation : OPERATIONS) {
+                String name = operation.name().toLowerCase(Locale.ROOT);
+                values.put(name + ".hits", hits(operation));
+                values.put(name + ".misses", misses(operation));
+                LatencyHistogram.Snapshot histogram = latency(operation);
+                if (histogram != null) {
+                    values.put(name + ".latency.p50", histogram.valueAtPercentile(50));
+                    values.put(name + ".latency.p99", histogram.valueAtPercentile(99));
+                    values.put(name + ".latency.p999", histogram.valueAtPercentile(99.9));
+                    values.put(name + ".latency.max", histogram.max());
+                }
+            }
+            values.put("rotations", rotations);
+            values.put("recolorings", recolorings);
+            values.put("comparisons", comparisons);
+            values.put("descents", descents);
+            values.put("path.length.total", pathLength);
+            values.put("path.length.max", maxPathLength);
+            return values;
+        }
+
+        // Текстовый формат Prometheus; prefix — начало имён метрик, например "rbtree"
+        public String toPrometheus(String prefix) {
+            StringBuilder out = new StringBuilder();
+            out.append("# TYPE ").append(prefix).append("_operations_total counter\n");
+            for (Operation operation : OPERATIONS) {
+                String name = operation.name().toLowerCase(Locale.ROOT);
+                out.append(prefix).append("_operations_total{operation=\"").append(name).append("\",result=\"hit\"} ")
+                        .append(hits(operation)).append('\n');
+                out.append(prefix).append("_operations_total{operation=\"").append(name).append("\",result=\"miss\"} ")
+                        .append(misses(operation)).append('\n');
+            }
+            counter(out, prefix + "_rotations_total", rotations);
+            counter(out, prefix + "_recolorings_total", recolorings);
+            counter(out, prefix + "_comparisons_total", comparisons);
+            counter(out, prefix + "_descents_total", descents);
+            counter(out, prefix + "_path_length_total", pathLength);
+            out.append("# TYPE ").append(prefix).append("_path_length_max gauge\n")
+                    .append(prefix).append("_path_length_max ").append(maxPathLength).append('\n');
+            if (!latency.isEmpty()) {
+                out.append("# TYPE ").append(prefix).append("_latency_nanoseconds summary\n");
+                for (Map.Entry<Operation, LatencyHistogram.Snapshot> entry : latency.entrySet()) {
+                    String name = entry.getKey().name().toLowerCase(Locale.ROOT);
+                    LatencyHistogram.Snapshot histogram = entry.getValue();
+                    for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                        out.append(prefix).append("_latency_nanoseconds{operation=\"").append(name)
+                                .append("\",quantile=\"").append(quantile).append("\"} ")
+                                .append(histogram.valueAtPercentile(quantile * 100)).append('\n');
+                    }
+                    out.append(prefix).append("_latency_nanoseconds_sum{operation=\"").append(name).append("\"} ")
+                            .append(histogram.sum()).append('\n');
+                    out.append(prefix).append("_latency_nanoseconds_count{operation=\"").append(name).append("\"} ")
+                            .append(histogram.count()).append('\n');
+                }
+            }
+            return out.toString();
+        }
+
+        private static void counter(StringBuilder out, String name, long value) {
+            out.append("# TYPE ").append(name).append(" counter\n").append(name).append(' ').append(value).append('\n');
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bsttree;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+// Ленивый итератор по диапазону ключей: спуск к первой границе за O(log n), дальше — шаги по ссылкам
+// на родителя, O(1) амортизированно на элемент. Изменение дерева в обход итератора — ConcurrentModificationException.
+class RBTreeRangeIterator<K, V, T> implements Iterator<T> {
+    private final RBTree<K, V> tree;
+    private final boolean descending;
+    private final K end;           // Граница, на которой обход останавливается (null — до конца)
+    private final boolean endInclusive;
+    private final Function<Node<K, V>, T> extractor;
+    private Node<K, V> next;
+    private Node<K, V> lastReturned;
+    private int expectedModCount;
+
+    RBTreeRangeIterator(RBTree<K, V> tree, boolean descending, K start, boolean startInclusive,
+                        K end, boolean endInclusive, Function<Node<K, V>, T> extractor) {
+        this.tree = tree;
+        this.descending = descending;
+        this.end = end;
+        this.endInclusive = endInclusive;
+        this.extractor = extractor;
+        this.expectedModCount = tree.modCount;
+        seek(start, startInclusive);
+    }
+
+    // Первый узел не раньше start в направлении обхода
+    private void seek(K start, boolean inclusive) {
+        Node<K, V> first;
+        if (start == null) {
+            first = descending ? tree.lastNode() : tree.firstNode();
+        } else {
+            first = descending ? tree.floorNode(start, inclusive) : tree.ceilingNode(start, inclusive);
+        }
+        next = bounded(first);
+    }
+
+    // node, если он не вышел за конечную границу, иначе null
+    private Node<K, V> bounded(Node<K, V> node) {
+        if (node != null && end != null) {
+            int cmp = tree.compare(node.key, end);
+            boolean beyond = descending ? cmp < 0 : cmp > 0;
+            if (beyond || (cmp == 0 && !endInclusive)) return null;
+        }
+        return node;
+    }
+
+    private Node<K, V> advance() {
+        return bounded(descending ? Node.predecessor(next) : Node.successor(next));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (tree.modCount != expectedModCount) throw new ConcurrentModificationException();
+        if (next == null) throw new NoSuchElementException();
+        lastReturned = next;
+        next = advance();
+        return extractor.apply(lastReturned);
+    }
+
+    // Удаление не трогает остальные узлы, поэтому следующий узел остаётся верным
+    @Override
+    public void remove() {
+        if (lastReturned == null) throw new IllegalStateException();
+        if (tree.modCount != expectedModCount) throw new ConcurrentModificationException();
+        tree.deleteIterative(lastReturned);
+        lastReturned = null;
+        expectedModCount = tree.modCount;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bsttree;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Обратный итератор по ключам дерева в порядке убывания.
+// Шаг к соседнему узлу идёт по ссылкам parent: без стека и без выделения памяти на элемент.
+// Изменение структуры дерева в обход итератора — ConcurrentModificationException.
+public class RBTreeReverseIterator<K, V> implements Iterator<K> {
+    private final RBTree<K, V> tree;
+    private Node<K, V> nextNode;    // Узел, который вернёт next()
+    private Node<K, V> currentNode; // Текущий узел
+    private int expectedModCount;
+
+    public RBTreeReverseIterator(RBTree<K, V> tree) {
+        this.tree = tree;
+        this.expectedModCount = tree.modCount;
+        this.nextNode = tree.lastNode();
+    }
+
+    private void checkForComodification() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextNode != null;
+    }
+
+    @Override
+    public K next() {
+        checkForComodification();
+        if (nextNode == null) {
+            throw new NoSuchElementException();
+        }
+        currentNode = nextNode;
+        nextNode = Node.predecessor(nextNode);
+        return currentNode.key;
+    }
+
+    // Удаление текущего узла; остальные узлы не перемещаются, так что следующий остаётся прежним
+    @Override
+    public void remove() {
+        if (currentNode == null) {
+            throw new IllegalStateException();
+        }
+        checkForComodification();
+        tree.deleteIterative(currentNode);
+        currentNode = null;
+        expectedModCount = tree.modCount;
+    }
+
+    // Установка на ключ: следующим next() вернёт первый ключ не больше key
+    public void seek(K key) {
+        expectedModCount = tree.modCount;
+        currentNode = null;
+        nextNode = tree.floorNode(key, true);
+    }
+
+    // Текущий ключ (последний возвращённый next()) или null
+    public K getCurrentKey() {
+        return currentNode != null ? currentNode.key : null;
+    }
+
+    // Операция доступа по чтению к данным текущего узла
+    public V getCurrentNodeValue() {
+        if (currentNode != null) {
+            return currentNode.value;
+        } else {
+            return null; // Если текущий узел не задан, возвращаем null
+        }
+    }
+
+    // Операция доступа по записи к данным текущего узла
+    public void setCurrentNodeValue(V value) {
+        if (currentNode != null) {
+            currentNode.value = value;
+        }
+    }
+
+    // Операция перехода к следующему узлу в порядке обхода; false, если его нет
+    public boolean moveToNextNode() {
+        if (!hasNext()) {
+            return false;
+        }
+        next();
+        return true;
+    }
+
+    // Операция перехода к предыдущему узлу в порядке обхода; false, если его нет
+    public boolean moveToPreviousNode() {
+        checkForComodification();
+        if (currentNode == null) {
+            return false;
+        }
+        Node<K, V> previous = Node.successor(currentNode);
+        if (previous == null) {
+            return false;
+        }
+        nextNode = currentNode;
+        currentNode = previous;
+        return true;
+    }
+
+    // Проверка равенства однотипных итераторов: одно дерево и одна позиция
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true; // Ссылки указывают на один и тот же объект
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false; // Проверка на null и сравнение классов
+        }
+        // Приведение объекта к типу RBTreeReverseIterator
+        RBTreeReverseIterator<?, ?> iterator = (RBTreeReverseIterator<?, ?>) obj;
+        return tree == iterator.tree && currentNode == iterator.currentNode && nextNode == iterator.nextNode;
+    }
+
+    public int hashCode() {
+        return System.identityHashCode(tree) * 31 + System.identityHashCode(nextNode);
+    }
+
+    // Проверка неравенства однотипных итераторов
+    public boolean notEquals(Object obj) {
+        return !equals(obj);
+    }
+}
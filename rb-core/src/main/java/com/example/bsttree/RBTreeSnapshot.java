@@ -0,0 +1,328 @@
+package com.example.bsttree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Снимок дерева в файле и чтение из него без восстановления узлов.
+//
+// Формат (big-endian), версия 1:
+//   заголовок, 32 байта: magic "RBTS", версия, число записей, смещение данных, длина файла
+//   индекс: для каждой записи по порядку ключей — long-смещение записи от начала файла
+//   данные: записи {int длина ключа, ключ, int длина значения (-1 — null), значение}
+// Файл отображается в память кусками по 1 ГиБ; запись никогда не пересекает границу куска
+// (писатель добивает кусок нулями), поэтому читать можно файлы любого размера.
+// Поиск — двоичный по индексу со сравнением ключа прямо в отображении: открытие снимка
+// стоит O(1) независимо от размера, страницы файла подгружаются по мере обращений.
+public final class RBTreeSnapshot<K, V> implements AutoCloseable {
+    private static final int MAGIC = 0x52425453; // "RBTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final SnapshotCodec<K> keyCodec;
+    private final SnapshotCodec<V> valueCodec;
+    private final long count;
+
+    private RBTreeSnapshot(FileChannel channel, MappedByteBuffer[] chunks, SnapshotCodec<K> keyCodec,
+                           SnapshotCodec<V> valueCodec, long count) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.count = count;
+    }
+
+    // Запись дерева в file в порядке ключей; по окончании данные сброшены на диск (force).
+    // Дерево нельзя менять во время записи.
+    public static <K, V> void write(RBTree<K, V> tree, Path file, SnapshotCodec<K> keyCodec,
+                                    SnapshotCodec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            new Writer<>(channel, tree.size(), keyCodec, valueCodec).write(tree);
+        }
+    }
+
+    // Последовательная запись данных большим буфером; индекс копится своим буфером и пишется
+    // по позиции, так что память писателя не зависит от размера дерева
+    private static final class Writer<K, V> {
+        private final FileChannel channel;
+        private final long count;
+        private final SnapshotCodec<K> keyCodec;
+        private final SnapshotCodec<V> valueCodec;
+        private final ByteBuffer data = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final ByteBuffer index = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private long dataPosition;  // Смещение в файле, с которого пойдёт содержимое буфера data
+        private long indexPosition; // То же для буфера index
+        private long written;
+        private IOException failure;
+
+        Writer(FileChannel channel, long count, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) {
+            this.channel = channel;
+            this.count = count;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.indexPosition = HEADER_SIZE;
+            this.dataPosition = HEADER_SIZE + 8 * count;
+        }
+
+        void write(RBTree<K, V> tree) throws IOException {
+            long dataOffset = dataPosition;
+            tree.forEach((key, value) -> {
+                if (failure != null) return;
+                try {
+                    append(key, value);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            });
+            if (failure != null) throw failure;
+            if (written != count) {
+                throw new IllegalStateException("Tree changed while writing: " + written + " entries, expected " + count);
+            }
+            long length = dataPosition + data.position();
+            flush(data, dataPosition);
+            flush(index, indexPosition);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(dataOffset).putLong(length).flip();
+            writeFully(header, 0);
+            channel.truncate(length);
+            channel.force(true);
+        }
+
+        private void append(K key, V value) throws IOException {
+            int keySize = keyCodec.encodedSize(key);
+            int valueSize = value != null ? valueCodec.encodedSize(value) : 0;
+            long entrySize = 8L + keySize + valueSize;
+            if (entrySize > CHUNK_SIZE) {
+                throw new IllegalArgumentException("Entry of " + entrySize + " bytes does not fit a snapshot chunk");
+            }
+
+            long offset = dataPosition + data.position();
+            if (offset >>> CHUNK_SHIFT != (offset + entrySize - 1) >>> CHUNK_SHIFT) {
+                // Запись не должна пересекать границу куска отображения: добиваем кусок нулями
+                long padding = CHUNK_SIZE - (offset & (CHUNK_SIZE - 1));
+                flush(data, dataPosition);
+                dataPosition = offset + padding;
+                offset = dataPosition;
+            }
+            if (entrySize > data.remaining()) {
+                flush(data, dataPosition);
+                dataPosition = offset;
+            }
+
+            ByteBuffer out = entrySize <= data.capacity() ? data : ByteBuffer.allocate((int) entrySize);
+            int start = out.position();
+            out.putInt(keySize);
+            keyCodec.encode(key, out);
+            out.putInt(value != null ? valueSize : -1);
+            if (value != null) valueCodec.encode(value, out);
+            if (out.position() - start != entrySize) {
+                throw new IllegalStateException("Codec wrote " + (out.position() - start - 8) + " bytes, declared "
+                        + (keySize + valueSize));
+            }
+            if (out != data) {
+                flush(out, offset);
+                dataPosition = offset + entrySize;
+            }
+
+            if (!index.hasRemaining()) {
+                flush(index, indexPosition);
+                indexPosition += WRITE_BUFFER_SIZE;
+            }
+            index.putLong(offset);
+            written++;
+        }
+
+        // Запись содержимого буфера с позиции position файла; буфер очищается
+        private void flush(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            writeFully(buffer, position);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    // Открытие снимка только для чтения: проверка заголовка и отображение файла в память
+    public static <K, V> RBTreeSnapshot<K, V> open(Path file, SnapshotCodec<K> keyCodec,
+                                                   SnapshotCodec<V> valueCodec) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Читаем заголовок целиком
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not an RBTree snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long count = header.getLong();
+            long dataOffset = header.getLong();
+            long length = header.getLong();
+            if (count < 0 || dataOffset != HEADER_SIZE + 8 * count || length < dataOffset || length > fileSize) {
+                throw new IOException("Corrupted snapshot header: " + file);
+            }
+
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, length - position));
+            }
+            return new RBTreeSnapshot<>(channel, chunks, keyCodec, valueCodec, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public V get(K key) {
+        long index = find(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    // Наибольшая запись с ключом не больше key (inclusive = false — строго меньше) или null
+    public Map.Entry<K, V> floorEntry(K key, boolean inclusive) {
+        long index = find(key);
+        long floor = index >= 0 ? (inclusive ? index : index - 1) : -index - 2;
+        return floor >= 0 ? entryAt(floor) : null;
+    }
+
+    // Наименьшая запись с ключом не меньше key (inclusive = false — строго больше) или null
+    public Map.Entry<K, V> ceilingEntry(K key, boolean inclusive) {
+        long index = find(key);
+        long ceiling = index >= 0 ? (inclusive ? index : index + 1) : -index - 1;
+        return ceiling < count ? entryAt(ceiling) : null;
+    }
+
+    public K floorKey(K key) {
+        Map.Entry<K, V> entry = floorEntry(key, true);
+        return entry != null ? entry.getKey() : null;
+    }
+
+    public K ceilingKey(K key) {
+        Map.Entry<K, V> entry = ceilingEntry(key, true);
+        return entry != null ? entry.getKey() : null;
+    }
+
+    // Обход записей диапазона по возрастанию ключей; граница null — без ограничения
+    public void forEachInRange(K lo, boolean loInclusive, K hi, boolean hiInclusive,
+                               BiConsumer<? super K, ? super V> action) {
+        long from = 0;
+        if (lo != null) {
+            long index = find(lo);
+            from = index >= 0 ? (loInclusive ? index : index + 1) : -index - 1;
+        }
+        long to = count;
+        if (hi != null) {
+            long index = find(hi);
+            to = index >= 0 ? (hiInclusive ? index + 1 : index) : -index - 1;
+        }
+        for (long i = from; i < to; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEachInRange(null, false, null, false, action);
+    }
+
+    // Загрузка снимка в дерево с тем же порядком ключей. Записи идут по возрастанию, поэтому
+    // в пустое дерево каждая вставка проходит по быстрому пути добавления в конец.
+    public RBTree<K, V> loadInto(RBTree<K, V> tree) {
+        forEach(tree::put);
+        return tree;
+    }
+
+    // Двоичный поиск по индексу: номер записи с ключом key или -(точка вставки) - 1, как Arrays.binarySearch
+    private long find(K key) {
+        long lo = 0;
+        long hi = count - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long offset = entryOffset(mid);
+            ByteBuffer chunk = chunk(offset);
+            int local = local(offset);
+            int cmp = keyCodec.compare(key, chunk, local + 4, chunk.getInt(local));
+            if (cmp > 0) {
+                lo = mid + 1;
+            } else if (cmp < 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    private long entryOffset(long index) {
+        long position = HEADER_SIZE + 8 * index;
+        return chunk(position).getLong(local(position));
+    }
+
+    private K keyAt(long index) {
+        long offset = entryOffset(index);
+        ByteBuffer chunk = chunk(offset);
+        int local = local(offset);
+        return keyCodec.decode(chunk, local + 4, chunk.getInt(local));
+    }
+
+    private V valueAt(long index) {
+        long offset = entryOffset(index);
+        ByteBuffer chunk = chunk(offset);
+        int local = local(offset);
+        int valueHeader = local + 4 + chunk.getInt(local);
+        int valueSize = chunk.getInt(valueHeader);
+        return valueSize >= 0 ? valueCodec.decode(chunk, valueHeader + 4, valueSize) : null;
+    }
+
+    private Map.Entry<K, V> entryAt(long index) {
+        return new AbstractMap.SimpleImmutableEntry<>(keyAt(index), valueAt(index));
+    }
+
+    private ByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int local(long offset) {
+        return (int) (offset & (CHUNK_SIZE - 1));
+    }
+
+    // Отображение освобождается сборщиком мусора; закрывается только канал
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bsttree;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Spliterator по отрезку порядковых номеров [from, to) дерева.
+// Делится пополам по номеру, поэтому части всегда равны и их размеры точные (SIZED | SUBSIZED);
+// к первому узлу части спускается по размерам поддеревьев за O(log n), дальше идёт по преемникам.
+class RBTreeSpliterator<K, V, T> implements Spliterator<T> {
+    // Меньше этого части не делятся: накладные расходы на задачу ForkJoin больше самой работы
+    private static final int MIN_SPLIT_SIZE = 1024;
+
+    private final RBTree<K, V> tree;
+    private final Function<Node<K, V>, T> extractor;
+    private final Comparator<? super T> comparator;
+    private final int expectedModCount;
+    private int from;
+    private final int to;
+    private Node<K, V> current; // Узел с номером from; null, пока обход не начат
+
+    RBTreeSpliterator(RBTree<K, V> tree, int from, int to, Function<Node<K, V>, T> extractor,
+                      Comparator<? super T> comparator) {
+        this.tree = tree;
+        this.from = from;
+        this.to = to;
+        this.extractor = extractor;
+        this.comparator = comparator;
+        this.expectedModCount = tree.modCount;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (current != null || to - from < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        RBTreeSpliterator<K, V, T> prefix = new RBTreeSpliterator<>(tree, from, mid, extractor, comparator);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (from >= to) {
+            return false;
+        }
+        checkForComodification();
+        current = current == null ? tree.selectNode(from) : Node.successor(current);
+        from++;
+        action.accept(extractor.apply(current));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (from >= to) {
+            return;
+        }
+        checkForComodification();
+        Node<K, V> node = current == null ? tree.selectNode(from) : Node.successor(current);
+        for (; from < to; from++) {
+            action.accept(extractor.apply(node));
+            current = node;
+            if (from + 1 < to) {
+                node = Node.successor(node);
+            }
+        }
+        checkForComodification();
+    }
+
+    private void checkForComodification() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+    }
+
+    // null — естественный порядок ключей
+    @Override
+    public Comparator<? super T> getComparator() {
+        return comparator;
+    }
+}
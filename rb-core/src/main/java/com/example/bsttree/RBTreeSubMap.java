@@ -0,0 +1,356 @@
+package com.example.bsttree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Ленивое представление диапазона ключей RBTree (subMap/headMap/tailMap/descendingMap).
+// Ничего не копирует: навигация — спуск по дереву за O(log n), размер — по размерам поддеревьев,
+// обход — от первой границы по преемникам. Границы хранятся в возрастающем порядке; null — без границы.
+class RBTreeSubMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final RBTree<K, V> tree;
+    private final K lo;
+    private final boolean loInclusive;
+    private final K hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    RBTreeSubMap(RBTree<K, V> tree, K lo, boolean loInclusive, K hi, boolean hiInclusive, boolean descending) {
+        if (lo != null && hi != null && tree.compare(lo, hi) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        this.tree = tree;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    // Проверки границ
+
+    private boolean tooLow(K key) {
+        if (lo == null) return false;
+        int cmp = tree.compare(key, lo);
+        return cmp < 0 || (cmp == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+        if (hi == null) return false;
+        int cmp = tree.compare(key, hi);
+        return cmp > 0 || (cmp == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    // Ключ допустим как граница вложенного диапазона: исключающая граница может совпадать с нашей
+    private boolean inRange(K key, boolean inclusive) {
+        if (inclusive) return inRange(key);
+        return (lo == null || tree.compare(key, lo) >= 0) && (hi == null || tree.compare(key, hi) <= 0);
+    }
+
+    // Навигация в возрастающем порядке ключей
+
+    private Node<K, V> absLowest() {
+        Node<K, V> node = lo == null ? tree.firstNode() : tree.ceilingNode(lo, loInclusive);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    private Node<K, V> absHighest() {
+        Node<K, V> node = hi == null ? tree.lastNode() : tree.floorNode(hi, hiInclusive);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    private Node<K, V> absCeiling(K key, boolean inclusive) {
+        if (tooLow(key)) return absLowest();
+        Node<K, V> node = tree.ceilingNode(key, inclusive);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    private Node<K, V> absFloor(K key, boolean inclusive) {
+        if (tooHigh(key)) return absHighest();
+        Node<K, V> node = tree.floorNode(key, inclusive);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    // Навигация в порядке этого представления
+
+    private Node<K, V> first() {
+        return descending ? absHighest() : absLowest();
+    }
+
+    private Node<K, V> last() {
+        return descending ? absLowest() : absHighest();
+    }
+
+    private Node<K, V> ceiling(K key, boolean inclusive) {
+        return descending ? absFloor(key, inclusive) : absCeiling(key, inclusive);
+    }
+
+    private Node<K, V> floor(K key, boolean inclusive) {
+        return descending ? absCeiling(key, inclusive) : absFloor(key, inclusive);
+    }
+
+    private static <K, V> Map.Entry<K, V> export(Node<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    private static <K> K keyOrNull(Node<K, ?> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static <K> K keyOrThrow(Node<K, ?> node) {
+        if (node == null) throw new NoSuchElementException();
+        return node.key;
+    }
+
+    private <T> Iterator<T> iterator(Function<Node<K, V>, T> extractor) {
+        return descending
+                ? new RBTreeRangeIterator<>(tree, true, hi, hiInclusive, lo, loInclusive, extractor)
+                : new RBTreeRangeIterator<>(tree, false, lo, loInclusive, hi, hiInclusive, extractor);
+    }
+
+    // Операции Map
+
+    @Override
+    public int size() {
+        if (lo == null && hi == null) return tree.size();
+        int below = hi == null ? tree.size() : tree.countBelow(hi, hiInclusive);
+        int excluded = lo == null ? 0 : tree.countBelow(lo, !loInclusive);
+        return Math.max(0, below - excluded); // Пустой диапазон вида (k, k) даёт -1
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return absLowest() == null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return inRange((K) key) && tree.findNode((K) key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return inRange((K) key) ? tree.get(key) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (!inRange(key)) throw new IllegalArgumentException("key out of range");
+        return tree.put(key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        return inRange((K) key) ? tree.remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (lo == null && hi == null) {
+            tree.clear();
+        } else {
+            super.clear();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return RBTreeSubMap.this.iterator(node -> node);
+            }
+
+            @Override
+            public int size() {
+                return RBTreeSubMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return RBTreeSubMap.this.isEmpty();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry<?, ?> entry)) return false;
+                K key = (K) entry.getKey();
+                Node<K, V> node = inRange(key) ? tree.findNode(key) : null;
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) return false;
+                tree.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                RBTreeSubMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new RBTreeKeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return new RBTreeKeySet<>(descendingMap());
+    }
+
+    // Операции SortedMap/NavigableMap
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return export(first());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return export(last());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(first());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(last());
+    }
+
+    private Map.Entry<K, V> poll(Node<K, V> node) {
+        if (node == null) return null;
+        Map.Entry<K, V> entry = export(node);
+        tree.deleteIterative(node);
+        return entry;
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return export(floor(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(floor(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return export(floor(key, true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floor(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return export(ceiling(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceiling(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return export(ceiling(key, false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(ceiling(key, false));
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> descendingMap() {
+        return new RBTreeSubMap<>(tree, lo, loInclusive, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (!inRange(fromKey, fromInclusive)) throw new IllegalArgumentException("fromKey out of range");
+        if (!inRange(toKey, toInclusive)) throw new IllegalArgumentException("toKey out of range");
+        return descending
+                ? new RBTreeSubMap<>(tree, toKey, toInclusive, fromKey, fromInclusive, true)
+                : new RBTreeSubMap<>(tree, fromKey, fromInclusive, toKey, toInclusive, false);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive)) throw new IllegalArgumentException("toKey out of range");
+        return descending
+                ? new RBTreeSubMap<>(tree, toKey, inclusive, hi, hiInclusive, true)
+                : new RBTreeSubMap<>(tree, lo, loInclusive, toKey, inclusive, false);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive)) throw new IllegalArgumentException("fromKey out of range");
+        return descending
+                ? new RBTreeSubMap<>(tree, lo, loInclusive, fromKey, inclusive, true)
+                : new RBTreeSubMap<>(tree, fromKey, inclusive, hi, hiInclusive, false);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public RBTreeSubMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+}
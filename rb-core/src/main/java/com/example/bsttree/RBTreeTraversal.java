@@ -0,0 +1,98 @@
+package com.example.bsttree;
+
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Итератор записей дерева в заданном порядке обхода, без рекурсии.
+// Прямой, симметричный и обратный порядки идут по ссылкам parent без стека; обход по уровням
+// держит очередь из узлов одного-двух уровней. Записи — сами узлы, как у итераторов entrySet.
+// Изменение структуры дерева в обход итератора — ConcurrentModificationException.
+public class RBTreeTraversal<K, V> implements Iterator<Map.Entry<K, V>> {
+    private final RBTree<K, V> tree;
+    private final TraversalOrder order;
+    private final ArrayDeque<Node<K, V>> queue; // Только для LEVEL_ORDER
+    private Node<K, V> nextNode;
+    private boolean started; // next() уже вызывался
+    private final int expectedModCount;
+
+    public RBTreeTraversal(RBTree<K, V> tree, TraversalOrder order) {
+        this.tree = tree;
+        this.order = order;
+        this.expectedModCount = tree.modCount;
+        Node<K, V> root = tree.rootNode();
+        queue = order == TraversalOrder.LEVEL_ORDER ? new ArrayDeque<>() : null;
+        if (root == null) return;
+        switch (order) {
+            case PRE_ORDER -> nextNode = root;
+            case IN_ORDER -> nextNode = tree.firstNode();
+            case POST_ORDER -> nextNode = Node.postorderFirst(root);
+            case LEVEL_ORDER -> {
+                nextNode = root;
+                enqueueChildren(root);
+            }
+        }
+    }
+
+    private void enqueueChildren(Node<K, V> node) {
+        if (node.left != null) queue.add(node.left);
+        if (node.right != null) queue.add(node.right);
+    }
+
+    public TraversalOrder order() {
+        return order;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextNode != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+        checkForComodification();
+        Node<K, V> node = nextNode;
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        nextNode = switch (order) {
+            case PRE_ORDER -> Node.preorderNext(node);
+            case IN_ORDER -> Node.successor(node);
+            case POST_ORDER -> Node.postorderNext(node);
+            case LEVEL_ORDER -> {
+                Node<K, V> next = queue.poll();
+                if (next != null) enqueueChildren(next);
+                yield next;
+            }
+        };
+        started = true;
+        return node;
+    }
+
+    private void checkForComodification() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // Пропуск count записей; возвращает, сколько пропущено на самом деле. В симметричном порядке
+    // до первого next() переход идёт по размерам поддеревьев за O(log n), в остальных — за O(count)
+    public int skip(int count) {
+        if (count <= 0) return 0;
+        if (order == TraversalOrder.IN_ORDER && !started) {
+            checkForComodification();
+            int skipped = Math.min(count, tree.size());
+            nextNode = skipped < tree.size() ? tree.selectNode(skipped) : null;
+            started = true;
+            return skipped;
+        }
+        int skipped = 0;
+        while (skipped < count && hasNext()) {
+            next();
+            skipped++;
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.bsttree;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+// Потокобезопасное дерево, разбитое по диапазонам ключей на независимые RBTree со своими блокировками.
+// Запись в разные диапазоны идёт параллельно, чтения одного шарда — параллельно друг с другом.
+// Когда самый большой шард перерастает самый маленький, все границы пересчитываются по квантилям:
+// шарды сшиваются в одно дерево и режутся на равные части, O(k log n) для k шардов под блокировками всех.
+// Так перекос не застревает у соседей переполненного шарда, а расходится по всем шардам.
+public class ShardedRBTree<K extends Comparable<K>, V> {
+    // Перебалансировка, если самый большой шард больше самого маленького в SKEW_FACTOR раз
+    // и ещё на MIN_REBALANCE_SIZE элементов
+    private static final int SKEW_FACTOR = 2;
+    private static final int MIN_REBALANCE_SIZE = 1024;
+
+    private final Shard<K, V>[] shards;
+    private final AtomicReference<Layout<K>> layout;
+
+    private static final class Shard<K extends Comparable<K>, V> {
+        final RBTree<K, V> tree = new RBTree<>();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile int size; // Копия tree.size() для оценки перекоса без блокировки; пишется под блокировкой на запись
+
+        Lock lock(boolean write) {
+            return write ? lock.writeLock() : lock.readLock();
+        }
+
+        // Вызывается после каждого изменения дерева, пока блокировка на запись ещё держится
+        void updateSize() {
+            size = tree.size();
+        }
+    }
+
+    // Неизменяемые границы: шард i хранит ключи из [bounds[i - 1], bounds[i])
+    private static final class Layout<K extends Comparable<K>> {
+        final K[] bounds;
+
+        Layout(K[] bounds) {
+            this.bounds = bounds;
+        }
+
+        int shardOf(K key) {
+            int lo = 0;
+            int hi = bounds.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (key.compareTo(bounds[mid]) < 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+
+    // splitPoints — строго возрастающие начальные границы; шардов на один больше, чем границ
+    @SuppressWarnings("unchecked")
+    public ShardedRBTree(K[] splitPoints) {
+        for (int i = 1; i < splitPoints.length; i++) {
+            if (splitPoints[i - 1].compareTo(splitPoints[i]) >= 0) {
+                throw new IllegalArgumentException("Split points are not strictly increasing: "
+                        + splitPoints[i - 1] + ", " + splitPoints[i]);
+            }
+        }
+        shards = (Shard<K, V>[]) new Shard<?, ?>[splitPoints.length + 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<>();
+        }
+        layout = new AtomicReference<>(new Layout<>(splitPoints.clone()));
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    // Блокирует шард, которому принадлежит ключ, на запись или на чтение и возвращает его номер.
+    // Границы шарда меняются только под его блокировкой на запись, поэтому проверки после захвата достаточно.
+    private int lockShardOf(K key, boolean write) {
+        while (true) {
+            int index = layout.get().shardOf(key);
+            shards[index].lock(write).lock();
+            if (layout.get().shardOf(key) == index) {
+                return index;
+            }
+            shards[index].lock(write).unlock();
+        }
+    }
+
+    public void insert(K key, V value) {
+        int index = lockShardOf(key, true);
+        try {
+            shards[index].tree.insert(key, value);
+            shards[index].updateSize();
+        } finally {
+            shards[index].lock.writeLock().unlock();
+        }
+        rebalanceIfSkewed();
+    }
+
+    public void put(K key, V value) {
+        insert(key, value);
+    }
+
+    public V search(K key) {
+        int index = lockShardOf(key, false);
+        try {
+            return shards[index].tree.search(key);
+        } finally {
+            shards[index].lock.readLock().unlock();
+        }
+    }
+
+    // Ключ со значением null тоже считается найденным
+    public boolean containsKey(K key) {
+        int index = lockShardOf(key, false);
+        try {
+            return shards[index].tree.containsKey(key);
+        } finally {
+            shards[index].lock.readLock().unlock();
+        }
+    }
+
+    public void delete(K key) {
+        int index = lockShardOf(key, true);
+        try {
+            shards[index].tree.delete(key);
+            shards[index].updateSize();
+        } finally {
+            shards[index].lock.writeLock().unlock();
+        }
+        rebalanceIfSkewed();
+    }
+
+    // Пакет изменений (см. RBTree.applyBatch). Пакет сортируется до блокировок, затем блокируются
+    // все шарды по возрастанию номера: пока они захвачены, границы не двигаются, и ни один читатель
+    // не видит пакет применённым наполовину. Каждый шард получает свой отрезок отсортированного пакета
+    public void applyBatch(Collection<? extends Mutation<K, V>> batch) {
+        Mutation<K, V>[] sorted = shards[0].tree.sortBatch(batch);
+        if (sorted.length == 0) return;
+        for (Shard<K, V> shard : shards) {
+            shard.lock.writeLock().lock();
+        }
+        try {
+            Layout<K> current = layout.get();
+            int first = current.shardOf(sorted[0].key());
+            int last = current.shardOf(sorted[sorted.length - 1].key());
+            int from = 0;
+            for (int index = first; index <= last; index++) {
+                int to = from;
+                while (to < sorted.length && current.shardOf(sorted[to].key()) == index) to++;
+                shards[index].tree.applySortedBatch(sorted, from, to);
+                shards[index].updateSize();
+                from = to;
+            }
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].lock.writeLock().unlock();
+            }
+        }
+        rebalanceIfSkewed();
+    }
+
+    // Сумма размеров шардов; при параллельной записи — не атомарный снимок
+    public int size() {
+        int size = 0;
+        for (Shard<K, V> shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                size += shard.tree.size();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    // Размеры шардов по порядку ключей — для наблюдения за балансом; как и size, не атомарный снимок
+    public int[] shardSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size;
+        }
+        return sizes;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Обход всех пар в порядке возрастания ключей
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEachInRange(null, null, action);
+    }
+
+    // Обход ключей из [lo, hi] по возрастанию (null — без ограничения).
+    // Каждый шард обходится под своей блокировкой; следующий шард ищется по границе пройденного,
+    // поэтому ключи, переехавшие при перебалансировке, не пропускаются и не повторяются.
+    public void forEachInRange(K lo, K hi, BiConsumer<? super K, ? super V> action) {
+        K from = lo;
+        boolean fromInclusive = true;
+        while (true) {
+            int index = from == null ? lockFirstShard() : lockShardOf(from, false);
+            K upper;
+            try {
+                K[] bounds = layout.get().bounds;
+                upper = index < bounds.length ? bounds[index] : null;
+                boolean lastShard = upper == null || (hi != null && hi.compareTo(upper) < 0);
+                if (lastShard) {
+                    shards[index].tree.forEachInRange(from, fromInclusive, hi, true, action);
+                    return;
+                }
+                shards[index].tree.forEachInRange(from, fromInclusive, upper, false, action);
+            } finally {
+                shards[index].lock.readLock().unlock();
+            }
+            from = upper;
+            fromInclusive = true;
+        }
+    }
+
+    private int lockFirstShard() {
+        shards[0].lock.readLock().lock();
+        return 0;
+    }
+
+    // Оценка без блокировок по копиям размеров, O(k); rebalance перепроверяет её под блокировками
+    private void rebalanceIfSkewed() {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (Shard<K, V> shard : shards) {
+            int size = shard.size;
+            min = Math.min(min, size);
+            max = Math.max(max, size);
+        }
+        if (isSkewed(min, max)) {
+            rebalance();
+        }
+    }
+
+    private static boolean isSkewed(int min, int max) {
+        return max > SKEW_FACTOR * min + MIN_REBALANCE_SIZE;
+    }
+
+    // Выравнивает все шарды: сшивает их по порядку в дерево первого шарда и отрезает от него сверху
+    // части по total / k ключей. Границы — ключи с рангами i·total / k, публикуются одним Layout
+    @SuppressWarnings("unchecked")
+    private void rebalance() {
+        // Блокировки всегда берутся по возрастанию номера шарда
+        for (Shard<K, V> shard : shards) {
+            shard.lock.writeLock().lock();
+        }
+        try {
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (Shard<K, V> shard : shards) {
+                min = Math.min(min, shard.tree.size());
+                max = Math.max(max, shard.tree.size());
+            }
+            if (!isSkewed(min, max)) {
+                return; // Пока ждали блокировок, перекос уже исправили
+            }
+            RBTree<K, V> all = shards[0].tree;
+            for (int i = 1; i < shards.length; i++) {
+                all.appendAll(shards[i].tree);
+            }
+            long total = all.size();
+            K[] bounds = (K[]) new Comparable<?>[shards.length - 1];
+            for (int i = shards.length - 1; i > 0; i--) {
+                bounds[i - 1] = all.select((int) (total * i / shards.length));
+                shards[i].tree.appendAll(all.split(bounds[i - 1]));
+            }
+            for (Shard<K, V> shard : shards) {
+                shard.updateSize();
+            }
+            layout.set(new Layout<>(bounds));
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].lock.writeLock().unlock();
+            }
+        }
+    }
+}
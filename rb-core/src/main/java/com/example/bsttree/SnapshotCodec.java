@@ -0,0 +1,189 @@
+package com.example.bsttree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Кодек ключей или значений снимка дерева (RBTreeSnapshot). Чтение идёт по абсолютным смещениям
+// прямо из отображённого в память файла, поэтому decode не должен менять позицию буфера.
+public interface SnapshotCodec<T> {
+
+    // Размер закодированного значения в байтах
+    int encodedSize(T value);
+
+    // Запись значения с текущей позиции out
+    void encode(T value, ByteBuffer out);
+
+    // Чтение значения из in[offset, offset + length)
+    T decode(ByteBuffer in, int offset, int length);
+
+    // Сравнение key с ключом, закодированным в in[offset, offset + length), в порядке ключей снимка.
+    // По умолчанию — декодирование и естественный порядок; встроенные кодеки сравнивают без декодирования.
+    // Для дерева со своим компаратором кодек ключей должен сравнивать в порядке этого компаратора.
+    @SuppressWarnings("unchecked")
+    default int compare(T key, ByteBuffer in, int offset, int length) {
+        return ((Comparable<? super T>) key).compareTo(decode(in, offset, length));
+    }
+
+    // long: 8 байт big-endian
+    static SnapshotCodec<Long> longs() {
+        return new SnapshotCodec<>() {
+            @Override
+            public int encodedSize(Long value) {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void encode(Long value, ByteBuffer out) {
+                out.putLong(value);
+            }
+
+            @Override
+            public Long decode(ByteBuffer in, int offset, int length) {
+                return in.getLong(offset);
+            }
+
+            @Override
+            public int compare(Long key, ByteBuffer in, int offset, int length) {
+                return Long.compare(key, in.getLong(offset));
+            }
+        };
+    }
+
+    // int: 4 байта big-endian
+    static SnapshotCodec<Integer> ints() {
+        return new SnapshotCodec<>() {
+            @Override
+            public int encodedSize(Integer value) {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void encode(Integer value, ByteBuffer out) {
+                out.putInt(value);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer in, int offset, int length) {
+                return in.getInt(offset);
+            }
+
+            @Override
+            public int compare(Integer key, ByteBuffer in, int offset, int length) {
+                return Integer.compare(key, in.getInt(offset));
+            }
+        };
+    }
+
+    // byte[] как есть; порядок — беззнаковый лексикографический, как у RBTree.forByteArrayKeys
+    static SnapshotCodec<byte[]> bytes() {
+        return new SnapshotCodec<>() {
+            @Override
+            public int encodedSize(byte[] value) {
+                return value.length;
+            }
+
+            @Override
+            public void encode(byte[] value, ByteBuffer out) {
+                out.put(value);
+            }
+
+            @Override
+            public byte[] decode(ByteBuffer in, int offset, int length) {
+                byte[] value = new byte[length];
+                in.get(offset, value);
+                return value;
+            }
+
+            @Override
+            public int compare(byte[] key, ByteBuffer in, int offset, int length) {
+                int common = Math.min(key.length, length);
+                for (int i = 0; i < common; i++) {
+                    int cmp = Integer.compare(key[i] & 0xFF, in.get(offset + i) & 0xFF);
+                    if (cmp != 0) return cmp;
+                }
+                return Integer.compare(key.length, length);
+            }
+        };
+    }
+
+    // String в UTF-8. Сравнение декодирует UTF-8 в единицы UTF-16 на лету и сравнивает их с символами
+    // ключа, то есть совпадает с String.compareTo и не создаёт строку.
+    static SnapshotCodec<String> strings() {
+        return new SnapshotCodec<>() {
+            @Override
+            public int encodedSize(String value) {
+                int size = 0;
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c < 0x80) {
+                        size += 1;
+                    } else if (c < 0x800) {
+                        size += 2;
+                    } else if (Character.isSurrogate(c)) {
+                        // Пара — 4 байта; одиночный суррогат getBytes заменяет на '?'
+                        if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                            size += 4;
+                            i++;
+                        } else {
+                            size += 1;
+                        }
+                    } else {
+                        size += 3;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public void encode(String value, ByteBuffer out) {
+                out.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String decode(ByteBuffer in, int offset, int length) {
+                byte[] bytes = new byte[length];
+                in.get(offset, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public int compare(String key, ByteBuffer in, int offset, int length) {
+                int end = offset + length;
+                int i = 0;
+                int position = offset;
+                while (i < key.length() && position < end) {
+                    int b = in.get(position) & 0xFF;
+                    int codePoint;
+                    if (b < 0x80) {
+                        codePoint = b;
+                        position += 1;
+                    } else if (b < 0xE0) {
+                        codePoint = (b & 0x1F) << 6 | (in.get(position + 1) & 0x3F);
+                        position += 2;
+                    } else if (b < 0xF0) {
+                        codePoint = (b & 0x0F) << 12 | (in.get(position + 1) & 0x3F) << 6 | (in.get(position + 2) & 0x3F);
+                        position += 3;
+                    } else {
+                        codePoint = (b & 0x07) << 18 | (in.get(position + 1) & 0x3F) << 12
+                                | (in.get(position + 2) & 0x3F) << 6 | (in.get(position + 3) & 0x3F);
+                        position += 4;
+                    }
+                    if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                        int cmp = Character.compare(key.charAt(i++), (char) codePoint);
+                        if (cmp != 0) return cmp;
+                    } else {
+                        // Дополнительный символ — две единицы UTF-16
+                        int cmp = Character.compare(key.charAt(i++), Character.highSurrogate(codePoint));
+                        if (cmp != 0) return cmp;
+                        if (i == key.length()) return -1;
+                        cmp = Character.compare(key.charAt(i++), Character.lowSurrogate(codePoint));
+                        if (cmp != 0) return cmp;
+                    }
+                }
+                if (i < key.length()) return 1;
+                return position < end ? -1 : 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bsttree;
+
+// Когда записи журнала DurableRBTree сбрасываются на диск (FileChannel.force)
+public final class SyncPolicy {
+    enum Mode { EVERY_OPERATION, BATCH, INTERVAL }
+
+    final Mode mode;
+    final int batchSize;
+    final long intervalMillis;
+
+    private SyncPolicy(Mode mode, int batchSize, long intervalMillis) {
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    // Изменение возвращается только после force. Одновременные записи из разных потоков
+    // сбрасываются одним force (групповая фиксация).
+    public static SyncPolicy everyOperation() {
+        return new SyncPolicy(Mode.EVERY_OPERATION, 1, 0);
+    }
+
+    // force после каждых operations изменений; при сбое теряется не больше operations - 1 последних изменений
+    public static SyncPolicy batch(int operations) {
+        if (operations < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + operations);
+        }
+        return new SyncPolicy(Mode.BATCH, operations, 0);
+    }
+
+    // force фоновым потоком раз в millis миллисекунд; при сбое теряются изменения последнего интервала
+    public static SyncPolicy interval(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Interval must be positive: " + millis);
+        }
+        return new SyncPolicy(Mode.INTERVAL, Integer.MAX_VALUE, millis);
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case BATCH:
+                return "batch(" + batchSize + ")";
+            case INTERVAL:
+                return "interval(" + intervalMillis + " ms)";
+            default:
+                return "everyOperation()";
+        }
+    }
+}
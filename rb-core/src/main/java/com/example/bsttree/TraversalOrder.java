@@ -0,0 +1,9 @@
+package com.example.bsttree;
+
+// Порядок обхода для RBTree.traversal и RBTree.writeTraversal
+public enum TraversalOrder {
+    PRE_ORDER,   // Узел, левое поддерево, правое
+    IN_ORDER,    // Левое поддерево, узел, правое — по возрастанию ключей
+    POST_ORDER,  // Левое поддерево, правое, узел
+    LEVEL_ORDER  // По уровням сверху вниз, на уровне — слева направо
+}
@@ -0,0 +1,9 @@
+package com.example.bsttree;
+
+// Получатель узлов из RBTree.visitStructure. Узлы приходят в прямом порядке, поэтому родитель
+// всегда раньше потомков; rank — номер ключа по возрастанию (0 — минимальный), depth — расстояние
+// от корня, parentRank — номер ключа родителя или -1 у корня. Левый потомок — тот, у кого rank меньше parentRank.
+@FunctionalInterface
+public interface TreeStructureVisitor<K, V> {
+    void visit(K key, V value, boolean red, int depth, int rank, int parentRank);
+}
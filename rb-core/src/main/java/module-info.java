@@ -0,0 +1,3 @@
+module com.example.bsttree {
+    exports com.example.bsttree;
+}
@@ -0,0 +1,272 @@
+package com.example.bsttree.viz;
+
+import com.example.bsttree.RBTree;
+import com.example.bsttree.RBTreeSnapshot;
+import com.example.bsttree.RBTreeTraversal;
+import com.example.bsttree.SnapshotCodec;
+import com.example.bsttree.TraversalOrder;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Окно для ручной работы с деревом строк: операции по кнопкам, обход дерева по страницам и его рисунок.
+// Дерево принадлежит одному рабочему потоку: операции, обход и раскладка выполняются в нём,
+// а поток FX только получает готовую раскладку и перерисовывает окно (TreeCanvas).
+// Первый аргумент командной строки — необязательный путь к снимку RBTreeSnapshot со строковыми
+// ключами и значениями, который загружается при старте.
+public class RBTreeViewer extends Application {
+    private static final int PAGE_SIZE = 500; // Записей обхода на странице
+
+    private final RBTree<String, String> tree = new RBTree<>();
+    private final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), task -> {
+                Thread thread = new Thread(task, "rb-tree-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final TextArea outputArea = new TextArea();
+    private final TreeCanvas canvas = new TreeCanvas();
+    // Обход показывается по PAGE_SIZE записей: окно не получает текст всего дерева целиком
+    private final ComboBox<TraversalOrder> orderBox = new ComboBox<>();
+    private final TextArea traversalArea = new TextArea();
+    private final Label pageLabel = new Label();
+    private int page; // Номер показанной страницы; меняется только в потоке FX
+    private final AtomicInteger pendingChanges = new AtomicInteger(); // Изменения, ещё не выполненные рабочим потоком
+
+    @Override
+    public void start(Stage primaryStage) {
+        TextField keyField = new TextField();
+        TextField valueField = new TextField();
+        Button insertButton = new Button("Insert");
+        Button deleteButton = new Button("Delete");
+        Button searchButton = new Button("Search");
+        Button isEmptyButton = new Button("Is Empty"); // Кнопка для проверки на пустоту
+        Button clearButton = new Button("Clear Tree"); // Кнопка для полной очистки дерева
+        Button sizeButton = new Button("Size"); // Кнопка для проверки размера дерева
+        Button getButton = new Button("Get"); // Кнопка для получения значения по ключу
+        Button setButton = new Button("Set"); // Кнопка для установки значения по ключу
+        Button putButton = new Button("Put"); // Кнопка для включения данных с заданным ключом
+        Button removeButton = new Button("Remove"); // Кнопка для удаления данных с заданным ключом
+
+        insertButton.setOnAction(event -> {
+            String key = keyField.getText();
+            String value = valueField.getText();
+            change(key, tree -> {
+                tree.insert(key, value);
+                return null;
+            });
+        });
+
+        deleteButton.setOnAction(event -> {
+            String key = keyField.getText();
+            change(key, tree -> {
+                tree.delete(key);
+                return null;
+            });
+        });
+
+        searchButton.setOnAction(event -> {
+            String key = keyField.getText();
+            query(key, tree -> "Key " + key + " found: " + tree.search(key));
+        });
+
+        getButton.setOnAction(event -> {
+            String key = keyField.getText();
+            query(key, tree -> "Value for key " + key + ": " + tree.get(key));
+        });
+
+        // Установка значения только существующему ключу
+        setButton.setOnAction(event -> {
+            String key = keyField.getText();
+            String value = valueField.getText();
+            change(key, tree -> tree.replace(key, value) == null ? "Key " + key + " not found" : null);
+        });
+
+        putButton.setOnAction(event -> {
+            String key = keyField.getText();
+            String value = valueField.getText();
+            change(key, tree -> {
+                tree.put(key, value);
+                return null;
+            });
+        });
+
+        removeButton.setOnAction(event -> {
+            String key = keyField.getText();
+            change(key, tree -> {
+                tree.remove(key);
+                return null;
+            });
+        });
+
+        isEmptyButton.setOnAction(event -> query(null, tree -> "Tree is empty: " + tree.isEmpty()));
+
+        clearButton.setOnAction(event -> change(null, tree -> {
+            tree.clear();
+            return "";
+        }));
+
+        sizeButton.setOnAction(event -> query(null, tree -> "Tree size: " + tree.size()));
+
+        Button previousButton = new Button("<");
+        Button nextButton = new Button(">");
+        Button saveButton = new Button("Save..."); // Весь обход в файл
+        orderBox.getItems().addAll(TraversalOrder.values());
+        orderBox.setValue(TraversalOrder.PRE_ORDER);
+        orderBox.setOnAction(event -> showPage(0));
+        previousButton.setOnAction(event -> showPage(page - 1));
+        nextButton.setOnAction(event -> showPage(page + 1));
+        saveButton.setOnAction(event -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setInitialFileName("traversal.txt");
+            File file = chooser.showSaveDialog(primaryStage);
+            if (file != null) save(orderBox.getValue(), file.toPath());
+        });
+        traversalArea.setEditable(false);
+        traversalArea.setPrefRowCount(6);
+        HBox traversalBox = new HBox(10, orderBox, previousButton, nextButton, pageLabel, saveButton);
+
+        VBox root = new VBox();
+        root.setSpacing(10);
+        root.setPadding(new Insets(10));
+        HBox inputBox = new HBox(10);
+        inputBox.getChildren().addAll(keyField, valueField, insertButton, deleteButton, searchButton,
+                isEmptyButton, clearButton, sizeButton, getButton, setButton, putButton, removeButton);
+        outputArea.setPrefRowCount(2);
+        VBox.setVgrow(canvas, Priority.ALWAYS);
+        root.getChildren().addAll(inputBox, outputArea, traversalBox, traversalArea, canvas);
+
+        Scene scene = new Scene(root, 1000, 1000);
+        primaryStage.setScene(scene);
+        primaryStage.setTitle("RB Tree");
+        primaryStage.show();
+
+        List<String> args = getParameters().getRaw();
+        if (!args.isEmpty()) load(Path.of(args.get(0)));
+        showPage(0);
+    }
+
+    @Override
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    // Загрузка снимка в рабочем потоке; окно остаётся отзывчивым
+    private void load(Path file) {
+        outputArea.setText("Loading " + file + "...");
+        change(null, tree -> {
+            try (RBTreeSnapshot<String, String> snapshot =
+                         RBTreeSnapshot.open(file, SnapshotCodec.strings(), SnapshotCodec.strings())) {
+                snapshot.loadInto(tree);
+                return "Loaded " + tree.size() + " entries from " + file;
+            } catch (Exception e) {
+                return "Cannot load " + file + ": " + e;
+            }
+        });
+    }
+
+    // Операция только для чтения: результат выводится, рисунок не меняется
+    private void query(String key, Function<RBTree<String, String>, String> operation) {
+        worker.execute(() -> {
+            String message = operation.apply(tree);
+            int rank = key != null && tree.containsKey(key) ? tree.rank(key) : -1;
+            Platform.runLater(() -> {
+                outputArea.setText(message);
+                canvas.reveal(rank);
+            });
+        });
+    }
+
+    // Изменение дерева. Раскладка и страница обхода снимаются, только если за ним в очереди нет других
+    // изменений: серия быстрых правок даёт одну перерисовку. Сообщение выводится всегда.
+    // operation возвращает сообщение или null
+    private void change(String key, Function<RBTree<String, String>, String> operation) {
+        pendingChanges.incrementAndGet();
+        worker.execute(() -> {
+            String message;
+            try {
+                message = operation.apply(tree);
+            } catch (RuntimeException e) {
+                message = "Invalid input!";
+            }
+            String output = message != null ? message : "";
+            if (pendingChanges.decrementAndGet() > 0) {
+                // Раскладку снимет следующее изменение из очереди
+                Platform.runLater(() -> outputArea.setText(output));
+                return;
+            }
+            TreeLayout layout = TreeLayout.of(tree);
+            int rank = key != null && tree.containsKey(key) ? tree.rank(key) : -1;
+            Platform.runLater(() -> {
+                outputArea.setText(output);
+                canvas.setTreeLayout(layout);
+                canvas.reveal(rank);
+                showPage(page);
+            });
+        });
+    }
+
+    // Страница обхода в выбранном порядке; номер ограничивается числом страниц
+    private void showPage(int requested) {
+        TraversalOrder order = orderBox.getValue();
+        worker.execute(() -> {
+            int pages = Math.max(1, (tree.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+            int shown = Math.max(0, Math.min(requested, pages - 1));
+            RBTreeTraversal<String, String> traversal = tree.traversal(order);
+            traversal.skip(shown * PAGE_SIZE);
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < PAGE_SIZE && traversal.hasNext(); i++) {
+                Map.Entry<String, String> entry = traversal.next();
+                text.append(entry.getKey()).append(':').append(entry.getValue()).append('\n');
+            }
+            Platform.runLater(() -> {
+                page = shown;
+                pageLabel.setText("Page " + (shown + 1) + " of " + pages);
+                traversalArea.setText(text.toString());
+            });
+        });
+    }
+
+    // Весь обход в файл; writeTraversal отдаёт текст крупными порциями, запись идёт в рабочем потоке
+    private void save(TraversalOrder order, Path file) {
+        outputArea.setText("Saving to " + file + "...");
+        worker.execute(() -> {
+            String message;
+            try (Writer out = Files.newBufferedWriter(file)) {
+                message = "Saved " + tree.writeTraversal(order, out) + " entries to " + file;
+            } catch (IOException e) {
+                message = "Cannot save " + file + ": " + e;
+            }
+            String result = message;
+            Platform.runLater(() -> outputArea.setText(result));
+        });
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
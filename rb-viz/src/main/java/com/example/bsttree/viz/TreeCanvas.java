@@ -0,0 +1,176 @@
+package com.example.bsttree.viz;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+// Рисунок дерева на одном Canvas вместо узлов сцены на каждый узел дерева. Перерисовывается только
+// окно: видимые узлы — отрезок номеров [first, last], его находит арифметика, а не перебор дерева.
+// Когда на пиксель приходится несколько узлов одного уровня, рисуется первый из них, так что
+// работа ограничена площадью окна, а не размером дерева. Перетаскивание сдвигает вид, колесо — масштаб.
+final class TreeCanvas extends Pane {
+    private static final double COLUMN = 70; // Шаг между соседними по ключу узлами при масштабе 1
+    private static final double ROW = 90;    // Шаг между уровнями
+    private static final double RADIUS = 28;
+    private static final double MIN_SCALE = 1e-4;
+    private static final double MAX_SCALE = 4;
+
+    private final Canvas canvas = new Canvas();
+    private TreeLayout layout = TreeLayout.EMPTY;
+    private double originX; // Экранные координаты узла с номером 0 на глубине 0
+    private double originY;
+    private double scale = 1;
+    private boolean placed; // Вид уже выставлен по дереву; при обновлениях он сохраняется
+    private double dragX;
+    private double dragY;
+    private int[] lastPixel = new int[0]; // Последний нарисованный столбец пикселей на каждом уровне
+
+    TreeCanvas() {
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+        widthProperty().addListener((observable, old, width) -> redraw());
+        heightProperty().addListener((observable, old, height) -> redraw());
+
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        setOnMouseDragged(event -> {
+            originX += event.getX() - dragX;
+            originY += event.getY() - dragY;
+            dragX = event.getX();
+            dragY = event.getY();
+            redraw();
+        });
+        setOnScroll(event -> {
+            double factor = Math.pow(1.0015, event.getDeltaY());
+            double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+            // Точка под курсором остаётся на месте
+            originX = event.getX() - (event.getX() - originX) * newScale / scale;
+            originY = event.getY() - (event.getY() - originY) * newScale / scale;
+            scale = newScale;
+            redraw();
+        });
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+    }
+
+    // Новая раскладка; вызывается в потоке FX. Масштаб и сдвиг сохраняются, чтобы правки не сбивали вид
+    void setTreeLayout(TreeLayout layout) {
+        this.layout = layout;
+        if (layout.height > lastPixel.length) lastPixel = new int[layout.height];
+        if (layout.size == 0) {
+            placed = false;
+        } else if (!placed) {
+            placed = true;
+            int root = rootRank(layout);
+            originX = getWidth() / 2 - root * COLUMN * scale;
+            originY = RADIUS + 10;
+        }
+        redraw();
+    }
+
+    // Сдвигает вид так, чтобы узел с номером rank оказался в центре, если он сейчас вне окна
+    void reveal(int rank) {
+        if (rank < 0 || rank >= layout.size) return;
+        double x = originX + rank * COLUMN * scale;
+        double y = originY + layout.depth[rank] * ROW * scale;
+        if (x < 0 || x > getWidth() || y < 0 || y > getHeight()) {
+            originX += getWidth() / 2 - x;
+            originY += getHeight() / 2 - y;
+            redraw();
+        }
+    }
+
+    private static int rootRank(TreeLayout layout) {
+        for (int rank = 0; rank < layout.size; rank++) {
+            if (layout.parent[rank] < 0) return rank;
+        }
+        return 0;
+    }
+
+    private void redraw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = getWidth();
+        double height = getHeight();
+        g.clearRect(0, 0, width, height);
+        TreeLayout layout = this.layout;
+        if (layout.size == 0) return;
+
+        double column = COLUMN * scale;
+        double row = ROW * scale;
+        double radius = RADIUS * scale;
+        int first = (int) Math.max(0, Math.ceil((-radius - originX) / column));
+        int last = (int) Math.min(layout.size - 1, Math.floor((width + radius - originX) / column));
+        int minDepth = (int) Math.max(0, Math.ceil((-radius - originY) / row));
+        int maxDepth = (int) Math.min(layout.height - 1, Math.floor((height + radius - originY) / row));
+        if (first > last || minDepth > maxDepth) return;
+
+        // Рёбра: от видимых узлов к родителям и рёбра, проходящие над окном. Последние лежат на путях
+        // к корню от соседей отрезка first - 1 и last + 1, так что их O(высоты)
+        g.setStroke(Color.GRAY);
+        g.setLineWidth(Math.max(0.5, Math.min(2, scale)));
+        g.beginPath();
+        Arrays.fill(lastPixel, Integer.MIN_VALUE);
+        for (int rank = first; rank <= last; rank++) {
+            int depth = layout.depth[rank];
+            int parent = layout.parent[rank];
+            if (parent < 0 || depth < minDepth || depth - 1 > maxDepth) continue;
+            int pixel = (int) (originX + rank * column);
+            if (pixel == lastPixel[depth]) continue;
+            lastPixel[depth] = pixel;
+            edge(g, layout, rank, parent, column, row);
+        }
+        for (int outside : new int[]{first - 1, last + 1}) {
+            if (outside < 0 || outside >= layout.size) continue;
+            for (int child = outside; layout.parent[child] >= 0; child = layout.parent[child]) {
+                if (child < first || child > last) edge(g, layout, child, layout.parent[child], column, row);
+            }
+        }
+        g.stroke();
+
+        // Узлы; подписи — только пока они помещаются в круг
+        boolean labels = radius >= 12;
+        if (labels) {
+            g.setFont(Font.font(null, FontWeight.BOLD, Math.min(14, radius * 0.45)));
+            g.setTextAlign(TextAlignment.CENTER);
+            g.setTextBaseline(VPos.CENTER);
+        }
+        Arrays.fill(lastPixel, Integer.MIN_VALUE);
+        for (int rank = first; rank <= last; rank++) {
+            int depth = layout.depth[rank];
+            if (depth < minDepth || depth > maxDepth) continue;
+            double x = originX + rank * column;
+            double y = originY + depth * row;
+            int pixel = (int) x;
+            if (pixel == lastPixel[depth]) continue;
+            lastPixel[depth] = pixel;
+            g.setFill(layout.red[rank] ? Color.RED : Color.BLACK);
+            if (radius >= 1.5) {
+                g.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            } else {
+                g.fillRect(x - 1, y - 1, 2, 2);
+            }
+            if (labels) {
+                g.setFill(Color.WHITE);
+                g.fillText(layout.labels[rank], x, y, 2 * radius - 6);
+            }
+        }
+    }
+
+    private void edge(GraphicsContext g, TreeLayout layout, int child, int parent, double column, double row) {
+        g.moveTo(originX + parent * column, originY + layout.depth[parent] * row);
+        g.lineTo(originX + child * column, originY + layout.depth[child] * row);
+    }
+}
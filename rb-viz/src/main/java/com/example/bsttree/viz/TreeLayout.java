@@ -0,0 +1,39 @@
+package com.example.bsttree.viz;
+
+import com.example.bsttree.RBTree;
+
+// Неизменяемая раскладка дерева для рисования, снятая за один обход visitStructure.
+// Узел с номером rank (по возрастанию ключа) стоит в столбце rank и в строке, равной глубине:
+// такие координаты не пересекаются при любом размере дерева, а видимые узлы — это отрезок номеров,
+// поэтому отсечение по окну не требует перебора всех узлов.
+final class TreeLayout {
+    static final TreeLayout EMPTY = new TreeLayout(0);
+
+    final int size;
+    final String[] labels;  // "ключ:значение" по номеру узла
+    final boolean[] red;
+    final int[] depth;
+    final int[] parent;     // Номер родителя; -1 у корня
+    int height;             // Наибольшая глубина + 1
+
+    private TreeLayout(int size) {
+        this.size = size;
+        labels = new String[size];
+        red = new boolean[size];
+        depth = new int[size];
+        parent = new int[size];
+    }
+
+    // Читает дерево; вызывать в потоке, который владеет деревом
+    static TreeLayout of(RBTree<?, ?> tree) {
+        TreeLayout layout = new TreeLayout(tree.size());
+        tree.visitStructure((key, value, red, depth, rank, parentRank) -> {
+            layout.labels[rank] = key + ":" + value;
+            layout.red[rank] = red;
+            layout.depth[rank] = depth;
+            layout.parent[rank] = parentRank;
+            if (depth >= layout.height) layout.height = depth + 1;
+        });
+        return layout;
+    }
+}
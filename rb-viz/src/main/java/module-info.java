@@ -0,0 +1,6 @@
+module com.example.bsttree.viz {
+    requires javafx.controls;
+    requires com.example.bsttree;
+
+    exports com.example.bsttree.viz to javafx.graphics;
+}